@@ -1,74 +1,41 @@
 package charCount;
 
 
+import java.io.IOException;
+
+import ngramcount.Alphabet;
+import ngramcount.NGramScanner;
+
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
 
 public class ByteMapper<KEY> extends Mapper<KEY, Text, Text, LongWritable> {
 	private static final int SIZE = 8;
-	private static final int MAX_INDEX = SIZE - 1;
 	private static final LongWritable ONE = new LongWritable(1L);
 	private Text txt = new Text();
 	private byte[] out = new byte[SIZE];
-	private byte[] cycle = new byte[SIZE];
-
-	public void map(KEY key, Text val, Context context) {
-		// ~ Check if this line is worth spending effort on
-		if (val.getLength() >= SIZE) {
-			int i = 0;
-			int j;
-
-			// ~ Fill the buffer
-			int useless = 0;
-			for (j = 0; (j < MAX_INDEX + useless) && (j < val.getLength()); j++) {
-				int currChar = convert(val.charAt(j));
-
-				// Only a-z,toLower(A-Z) and ' '
-				if (currChar != -1) {
-					this.cycle[i] = (byte) currChar;
-					i++;
-				} else {
-					useless++;
-				}
-			}
-
-			// ~ Start looping through the rest of the string
-			for (; j < val.getLength(); j++) {
-				int currChar = convert(val.charAt(j));
-				if (currChar != -1) {
-					i = i % SIZE;
-					this.cycle[i] = (byte) currChar;
-
-					// Build the output from the cycle
-					if(i < MAX_INDEX) {
-						System.arraycopy(cycle, i + 1,   // src_array,  srcPos
-						                 out,   0,       // dest_array, destPos
-						                 MAX_INDEX - i); // length
-					}					
-					System.arraycopy(cycle, 0,             // src_array,  srcPos
-					                 out,   MAX_INDEX - i, // dest_array, destPos
-					                 i + 1);               // length
-
-					i++;
 
-					try {
-						txt.set(out);
-						context.write(txt, ONE);
-					} catch (Exception e) {
-					}
-				}
+	// ~ Only a-z, toLower(A-Z) and ' ', every space kept
+	private NGramScanner scanner = new NGramScanner(SIZE, Alphabet.DEFAULT, false);
+
+	private Context context;
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long ngram, int length) {
+			Alphabet.DEFAULT.decode(ngram, out, 0, SIZE);
+			try {
+				txt.set(out);
+				context.write(txt, ONE);
+			} catch (Exception e) {
 			}
 		}
-	}
+	};
 
-	private static int convert(int c) {
-		if (((c-'a')|('z'-c)) >= 0 || c == ' ') {
-			return c;
-		} else if(((c-'A')|('Z'-c)) >= 0) {
-			return c + 0x20; // toLower(c)
-		} else {
-			return -1; // invalid
+	public void map(KEY key, Text val, Context context) throws IOException, InterruptedException {
+		// ~ Check if this line is worth spending effort on
+		if (val.getLength() >= SIZE) {
+			this.context = context;
+			scanner.scan(val.getBytes(), 0, val.getLength(), SIZE, sink);
 		}
 	}
 }
@@ -6,7 +6,6 @@ import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.compress.GzipCodec;
 import org.apache.hadoop.mapreduce.Job;
-import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
@@ -14,18 +13,24 @@ import org.apache.hadoop.mapreduce.lib.reduce.LongSumReducer;
 import org.apache.hadoop.util.Tool;
 
 public class CharCount extends Configured implements Tool {
-	@Override
-	public int run(String[] args) throws Exception {
-		Job job = new Job();
-
-		job.setJobName("CharList full run");
+	// ~ Sum the counts in the mapper rather than in a combiner
+	private static final String ARGNAME_COMBINE = "-combine";
 
+	/*
+	* Sets the classes and types of a CharCount job: ByteMapper with LongSumReducer as combiner, or
+	* CombiningByteMapper without one.
+	*/
+	public static void configure(Job job, boolean combineInMapper) {
 		// ~ Now where can we find them classes?
 		job.setJarByClass(ByteMapper.class);
-		
+
 		// ~ Set map/combine/reduce classes
-		job.setMapperClass(ByteMapper.class);
-		job.setCombinerClass(LongSumReducer.class);
+		if (combineInMapper) {
+			job.setMapperClass(CombiningByteMapper.class);
+		} else {
+			job.setMapperClass(ByteMapper.class);
+			job.setCombinerClass(LongSumReducer.class);
+		}
 		job.setReducerClass(LongSumReducer.class);
 
 		// ~ Define input/output types
@@ -33,15 +38,31 @@ public class CharCount extends Configured implements Tool {
 		job.setOutputFormatClass(TextOutputFormat.class);
 		job.setOutputKeyClass(Text.class);
 		job.setOutputValueClass(LongWritable.class);
+	}
+
+	@Override
+	public int run(String[] args) throws Exception {
+		boolean combineInMapper = false;
+		for (String arg : args) {
+			if (arg.equals(ARGNAME_COMBINE)) {
+				combineInMapper = true;
+			}
+		}
+
+		Job job = new Job(getConf());
+
+		job.setJobName("CharList full run");
+
+		configure(job, combineInMapper);
 		
 		job.setNumReduceTasks(200);
 
 		// ~ Specify input/output
-		FileInputFormat.setInputPathFilter(job, SimpleInputFilter.class);
-		SimpleInputFilter.setFilter("textData");
+		SimpleInputFilter.setFilter(job.getConfiguration(), "textData");
+		InputDiscovery.useManifests(job.getConfiguration());
 		Path inputPath = new Path("/data/public/common-crawl/parse-output/segment/*/*");
 		Path outputPath = new Path("/user/naward09/CharCount_output/");
-		FileInputFormat.addInputPath(job, inputPath);
+		InputDiscovery.addInputPaths(job, inputPath);
 		FileOutputFormat.setOutputPath(job, outputPath);
 		
 		// ~ Compress that output!
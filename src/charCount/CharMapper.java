@@ -1,5 +1,10 @@
 package charCount;
 
+import java.io.IOException;
+
+import ngramcount.Alphabet;
+import ngramcount.NGramScanner;
+
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
@@ -12,82 +17,42 @@ public class CharMapper<KEY> extends Mapper<KEY, Text, Text, LongWritable> {
 	// ~ Size of the output Strings
 	private static final int SIZE = 8;
 
-	// ~ cycle[n] is only valid for n <= MAX_INDEX
-	private static final int MAX_INDEX = SIZE - 1;
-
 	// ~ The output value
 	private static final LongWritable ONE = new LongWritable(1L);
 
-	// ~ Used to transform the char arrays to Strings, and then to Text's
-	private StringBuilder builder = new StringBuilder(SIZE);
-
 	// ~ Initialized only once, then set() is called every time it is written to the Context
 	private Text txt = new Text();
 
-	// ~ The char array used to store the combinations. It acts like a cycled buffer.
-	private char[] cycle = new char[SIZE];
-
-	public void map(KEY key, Text val, Context context) {
-		String line = val.toString();
-
-		// ~ Check if this line is worth spending effort on
-		if (line.length() >= SIZE) {
-			// ~ Current position in cycled char buffer
-			int i = 0;
-			// ~ Current position in input line
-			int j;
-
-			// ~ The number of illegal characters found so far.
-			int useless = 0;
-			// ~ Fill the buffer, before starting to submit anything (it's only half-full)
-			for (j = 0; (j < MAX_INDEX + useless) && (j < line.length()); j++) {
-				char currChar = Character.toLowerCase(line.charAt(j));
-
-				// ~ Only a-z are allowed
-				if (isValid(currChar)) {
-					cycle[i] = currChar;
-					i++;
-				} else {
-					useless++;
-				}
-			}
-
-			// ~ Start looping through the rest of the string, start at position j
-			for (; j < line.length(); j++) {
-				char currChar = Character.toLowerCase(line.charAt(j));
-				if (isValid(currChar)) {
-					i = i % SIZE;
-					this.cycle[i] = currChar;
-
-					// ~ Build the output from the cycle
-					builder.delete(0, SIZE);
-					if (i < MAX_INDEX) {
-						builder.append(cycle, i + 1, MAX_INDEX - i);
-					}
-					builder.append(cycle, 0, i + 1);
-
-					i++;
+	// ~ The bytes of the current output, decoded from the scanner's window
+	private byte[] out = new byte[SIZE];
 
-					try {
-						// ~ Done; write it to the Context, and start over again :)
-						txt.set(builder.toString());
-						context.write(txt, ONE);
-					} catch (Exception e) {
-					}
-				}
+	/*
+	* Reads the bytes of the Text as they are, without decoding them to a String first. Only a-z (after
+	* lowercasing A-Z) and spaces are valid, and every space counts; other bytes, including all of
+	* multi-byte UTF-8 characters, are ignored.
+	*/
+	private NGramScanner scanner = new NGramScanner(SIZE, Alphabet.DEFAULT, false);
+
+	// ~ The Context of the current map() call, for the sink
+	private Context context;
+
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long ngram, int length) {
+			Alphabet.DEFAULT.decode(ngram, out, 0, SIZE);
+			try {
+				// ~ Done; write it to the Context, and start over again :)
+				txt.set(out);
+				context.write(txt, ONE);
+			} catch (Exception e) {
 			}
 		}
-	}
+	};
 
-	/*
-	* Returns true if this is a valid char, thus whether it is a lowercase a-z or a space.
-	*/
-	private boolean isValid(char c) {
-		/*
-		* Oracle specifically advises against this, but it works and it's fast!
-		* We'll just take the incompatibility with Japanese for granted... Just remember to change it if you 
-		* want to work with really, really weird characters!
-		*/
-		return ('a' <= c && c <= 'z') || c == ' ';
+	public void map(KEY key, Text val, Context context) throws IOException, InterruptedException {
+		// ~ Check if this line is worth spending effort on
+		if (val.getLength() >= SIZE) {
+			this.context = context;
+			scanner.scan(val.getBytes(), 0, val.getLength(), SIZE, sink);
+		}
 	}
 }
@@ -0,0 +1,58 @@
+package charCount;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+
+/*
+* Runs CharCount twice with the local job runner, once with ByteMapper and LongSumReducer as combiner and once
+* with CombiningByteMapper, and prints what each pushed through the map output buffer.
+*
+* Usage: java charCount.CombineBenchmark <input path> <output dir>
+*/
+public class CombineBenchmark {
+	// ~ The group of the built-in task counters of the old API, whose enum is not public
+	private static final String TASK_COUNTERS = "org.apache.hadoop.mapred.Task$Counter";
+
+	private static final String[] COUNTERS = { "MAP_OUTPUT_RECORDS", "MAP_OUTPUT_BYTES", "SPILLED_RECORDS",
+			"COMBINE_INPUT_RECORDS", "REDUCE_INPUT_RECORDS" };
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			System.err.println("Usage: java charCount.CombineBenchmark <input path> <output dir>");
+			System.exit(1);
+		}
+		Configuration conf = new Configuration();
+		conf.set("mapred.job.tracker", "local");
+		conf.set("fs.default.name", "file:///");
+
+		for (boolean combineInMapper : new boolean[] { false, true }) {
+			Path output = new Path(args[1], combineInMapper ? "in-mapper" : "combiner");
+			FileSystem.getLocal(conf).delete(output, true);
+
+			Job job = new Job(conf);
+			job.setJobName("CharCount " + output.getName());
+			CharCount.configure(job, combineInMapper);
+			job.setNumReduceTasks(1);
+			FileInputFormat.addInputPath(job, new Path(args[0]));
+			FileOutputFormat.setOutputPath(job, output);
+
+			long start = System.currentTimeMillis();
+			if (!job.waitForCompletion(false)) {
+				System.err.println(job.getJobName() + " failed");
+				System.exit(1);
+			}
+			long time = System.currentTimeMillis() - start;
+
+			Counters counters = job.getCounters();
+			System.out.println(job.getJobName() + ": " + time + " ms");
+			for (String name : COUNTERS) {
+				System.out.printf("  %-22s %,d%n", name, counters.findCounter(TASK_COUNTERS, name).getValue());
+			}
+		}
+	}
+}
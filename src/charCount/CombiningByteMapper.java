@@ -0,0 +1,103 @@
+package charCount;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap.Entry;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+import java.io.IOException;
+
+import ngramcount.Alphabet;
+import ngramcount.NGramScanner;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+/*
+* Emits the same (8 characters, count) pairs as ByteMapper, but sums them in the mapper first, so no combiner
+* is needed and every distinct string leaves the mapper once per flush instead of once per occurrence.
+*
+* The strings are kept packed, 5 bits per character, as the keys of a hash table of at most
+* CONF_TABLE_SIZE entries. The table is written out and cleared when it is full, or when the heap is
+* nearly used up, whichever comes first. The heap is only looked at every HEAP_CHECK_STEP new entries:
+* used memory includes garbage not yet collected and the sort buffer, so a heap that looks full would
+* otherwise flush a nearly empty table after every record.
+*/
+public class CombiningByteMapper<KEY> extends Mapper<KEY, Text, Text, LongWritable> {
+	protected static enum MAPPERCOUNTER {
+		FLUSHES
+	}
+
+	// ~ The number of entries after which the table is flushed
+	public static final String CONF_TABLE_SIZE = "charcount.table.size";
+	public static final int DEFAULT_TABLE_SIZE = 1 << 20;
+
+	// ~ The table is flushed early when less than this fraction of the heap is left
+	private static final double MIN_FREE_HEAP = 0.1;
+
+	// ~ The number of new entries between two looks at the heap
+	private static final int HEAP_CHECK_STEP = 1 << 16;
+
+	private static final int SIZE = 8;
+
+	private Text txt = new Text();
+	private LongWritable count = new LongWritable();
+	private byte[] out = new byte[SIZE];
+
+	// ~ Only a-z, toLower(A-Z) and ' ', every space kept, as in ByteMapper
+	private NGramScanner scanner = new NGramScanner(SIZE, Alphabet.DEFAULT, false);
+
+	private int tableSize;
+	private int nextHeapCheck = HEAP_CHECK_STEP;
+	private Long2LongOpenHashMap h;
+
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) {
+			h.add(k, 1L);
+		}
+	};
+
+	protected void setup(Context context) throws IOException, InterruptedException {
+		tableSize = context.getConfiguration().getInt(CONF_TABLE_SIZE, DEFAULT_TABLE_SIZE);
+		h = new Long2LongOpenHashMap(tableSize);
+	}
+
+	public void map(KEY key, Text val, Context context) throws IOException, InterruptedException {
+		// ~ Check if this line is worth spending effort on
+		if (val.getLength() >= SIZE) {
+			scanner.scan(val.getBytes(), 0, val.getLength(), SIZE, sink);
+			if (h.size() >= tableSize) {
+				flush(context);
+			} else if (h.size() >= nextHeapCheck) {
+				nextHeapCheck = h.size() + HEAP_CHECK_STEP;
+				if (lowOnHeap()) {
+					flush(context);
+				}
+			}
+		}
+	}
+
+	private static boolean lowOnHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		return runtime.maxMemory() - used < MIN_FREE_HEAP * runtime.maxMemory();
+	}
+
+	private void flush(Context context) throws IOException, InterruptedException {
+		ObjectIterator<Entry> it = h.long2LongEntrySet().fastIterator();
+		while (it.hasNext()) {
+			Entry e = it.next();
+			Alphabet.DEFAULT.decode(e.getLongKey(), out, 0, SIZE);
+			txt.set(out);
+			count.set(e.getLongValue());
+			context.write(txt, count);
+		}
+		h.clear();
+		nextHeapCheck = HEAP_CHECK_STEP;
+		context.getCounter(MAPPERCOUNTER.FLUSHES).increment(1);
+	}
+
+	protected void cleanup(Context context) throws IOException, InterruptedException {
+		flush(context);
+	}
+}
@@ -0,0 +1,223 @@
+package charCount;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.MD5Hash;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.log4j.Logger;
+
+/**
+ * Finds the input files of a job on the client, instead of leaving a glob such
+ * as <code>segment/*&#47;*</code> and a {@link SimpleInputFilter} to
+ * FileInputFormat, which lists the thousands of segment directories one after
+ * the other.
+ *
+ * The last component of the input path is matched in each directory its
+ * parent expands to, on {@link #CONF_THREADS} threads. The files whose names
+ * pass {@link SimpleInputFilter#CONF_FILTER} are sorted.
+ * {@link SimpleInputFilter#CONF_MAX} then takes the first files of the sorted
+ * list, so a limited run always gets the same files.
+ *
+ * If {@link #CONF_MANIFEST_DIR} is set, the list is also written to a manifest
+ * there, named after the input path and the filter, and later runs over the
+ * same input read the manifest and skip the listing. Nothing tells when the
+ * input changes, so the manifest is off by default: only jobs over crawl
+ * segments, which do not change once written, turn it on with
+ * {@link #useManifests(Configuration)}. Delete the manifest, or set
+ * {@link #CONF_REFRESH}, to list the input again anyway.
+ */
+public class InputDiscovery {
+
+	private static final Logger LOG = Logger.getLogger(InputDiscovery.class);
+
+	/** Configuration key of the number of directories listed at once. */
+	public static final String CONF_THREADS = "charcount.input.threads";
+	public static final int DEFAULT_THREADS = 32;
+
+	/** Configuration key of the directory of the manifests; empty, the default, for none. */
+	public static final String CONF_MANIFEST_DIR = "charcount.input.manifest.dir";
+	public static final String DEFAULT_MANIFEST_DIR = "";
+
+	/** Directory of the manifests of inputs that never change, such as crawl segments. */
+	public static final String SEGMENT_MANIFEST_DIR = ".input-manifests";
+
+	/** Configuration key that makes the next run list the input again. */
+	public static final String CONF_REFRESH = "charcount.input.manifest.refresh";
+
+	/** Orders paths as Path.compareTo does; Path implements the raw Comparable, so sorting it directly is unchecked. */
+	private static final Comparator<Path> BY_NAME = new Comparator<Path>() {
+		public int compare(Path a, Path b) {
+			return a.compareTo(b);
+		}
+	};
+
+	private InputDiscovery() {
+	}
+
+	/**
+	 * Caches the listing in {@link #SEGMENT_MANIFEST_DIR}, unless the
+	 * configuration names a directory already. Only for inputs that never
+	 * change once written.
+	 */
+	public static void useManifests(Configuration conf) {
+		if (conf.get(CONF_MANIFEST_DIR) == null) {
+			conf.set(CONF_MANIFEST_DIR, SEGMENT_MANIFEST_DIR);
+		}
+	}
+
+	/**
+	 * Sets the input files of the job to those of <code>input</code> that
+	 * pass the job's filter, up to the job's maximum.
+	 */
+	public static void addInputPaths(Job job, Path input) throws IOException {
+		Configuration conf = job.getConfiguration();
+		List<Path> files = getInputFiles(conf, input);
+		long max = SimpleInputFilter.getMax(conf);
+		if (max >= 0 && max < files.size()) {
+			files = files.subList(0, (int) max);
+		}
+		if (files.isEmpty()) {
+			throw new IOException("No input files in " + input + " match '" + SimpleInputFilter.getFilter(conf) + "'");
+		}
+		LOG.info("using " + files.size() + " input files of " + input);
+		FileInputFormat.setInputPaths(job, files.toArray(new Path[files.size()]));
+	}
+
+	/** Returns the sorted files of <code>input</code> that pass the filter, from the manifest if there is one. */
+	public static List<Path> getInputFiles(Configuration conf, Path input) throws IOException {
+		FileSystem fs = input.getFileSystem(conf);
+		String key = fs.makeQualified(input) + "\t" + SimpleInputFilter.getFilter(conf);
+		String dir = conf.get(CONF_MANIFEST_DIR, DEFAULT_MANIFEST_DIR);
+		Path manifest = dir.isEmpty() ? null : new Path(dir, MD5Hash.digest(key).toString());
+
+		if (manifest != null && !conf.getBoolean(CONF_REFRESH, false)) {
+			List<Path> files = readManifest(fs, manifest, key);
+			if (files != null) {
+				LOG.info("read " + files.size() + " input files from " + manifest);
+				return files;
+			}
+		}
+
+		long start = System.currentTimeMillis();
+		List<Path> files = list(conf, fs, input);
+		LOG.info("listed " + files.size() + " input files of " + input + " in "
+				+ (System.currentTimeMillis() - start) + " ms");
+		if (manifest != null) {
+			writeManifest(fs, manifest, key, files);
+		}
+		return files;
+	}
+
+	private static List<Path> list(Configuration conf, final FileSystem fs, Path input) throws IOException {
+		final SimpleInputFilter filter = ReflectionUtils.newInstance(SimpleInputFilter.class, conf);
+		final String name = input.getName();
+		FileStatus[] dirs = input.getParent() == null ? null : fs.globStatus(input.getParent());
+		if (dirs == null || dirs.length == 0) {
+			throw new IOException("Input path does not exist: " + input);
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(dirs.length, conf.getInt(CONF_THREADS,
+				DEFAULT_THREADS)));
+		try {
+			List<Future<List<Path>>> listings = new ArrayList<Future<List<Path>>>(dirs.length);
+			for (final FileStatus dir : dirs) {
+				listings.add(pool.submit(new Callable<List<Path>>() {
+					public List<Path> call() throws IOException {
+						List<Path> files = new ArrayList<Path>();
+						FileStatus[] matches = fs.globStatus(new Path(dir.getPath(), name));
+						if (matches != null) {
+							for (FileStatus match : matches) {
+								// ~ A directory stands for its files, as in FileInputFormat
+								for (FileStatus file : match.isDir() ? fs.listStatus(match.getPath())
+										: new FileStatus[] { match }) {
+									if (!file.isDir() && accept(filter, file.getPath())) {
+										files.add(file.getPath());
+									}
+								}
+							}
+						}
+						return files;
+					}
+				}));
+			}
+			List<Path> files = new ArrayList<Path>();
+			for (Future<List<Path>> listing : listings) {
+				files.addAll(listing.get());
+			}
+			Collections.sort(files, BY_NAME);
+			return files;
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Skips hidden files such as checksums and _SUCCESS, as FileInputFormat does. */
+	private static boolean accept(SimpleInputFilter filter, Path path) {
+		String name = path.getName();
+		return !name.startsWith("_") && !name.startsWith(".") && filter.matches(path);
+	}
+
+	/** Returns the files of the manifest, or null if there is none for this key. */
+	private static List<Path> readManifest(FileSystem fs, Path manifest, String key) throws IOException {
+		if (!fs.exists(manifest)) {
+			return null;
+		}
+		BufferedReader in = new BufferedReader(new InputStreamReader(fs.open(manifest), "UTF-8"));
+		try {
+			if (!key.equals(in.readLine())) {
+				return null;
+			}
+			List<Path> files = new ArrayList<Path>();
+			String line;
+			while ((line = in.readLine()) != null) {
+				files.add(new Path(line));
+			}
+			return files;
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void writeManifest(FileSystem fs, Path manifest, String key, List<Path> files) throws IOException {
+		// ~ Written aside and renamed, so a concurrent run never reads half a manifest
+		Path tmp = manifest.suffix(".tmp" + System.nanoTime());
+		Writer out = new OutputStreamWriter(fs.create(tmp, true), "UTF-8");
+		try {
+			out.write(key);
+			out.write('\n');
+			for (Path file : files) {
+				out.write(file.toString());
+				out.write('\n');
+			}
+		} finally {
+			out.close();
+		}
+		fs.delete(manifest, false);
+		if (!fs.rename(tmp, manifest)) {
+			fs.delete(tmp, false);
+		}
+	}
+}
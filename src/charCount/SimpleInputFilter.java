@@ -1,34 +1,70 @@
 package charCount;
 
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathFilter;
 
 /**
  * Hadoop FileSystem PathFilter for TextData files, allowing users to limit the
  * number of files processed.
- * 
+ *
+ * The filter string and the maximum are read from the job configuration, so
+ * every instance FileInputFormat creates sees the same settings. Each instance
+ * counts the files it accepted itself; {@link InputDiscovery} applies the
+ * maximum over a sorted listing instead, which picks the same files every run.
+ *
  * @author Chris Stephens <chris@commoncrawl.org>
  */
-public class SimpleInputFilter implements PathFilter {
+public class SimpleInputFilter implements PathFilter, Configurable {
 
-	private static int count = 0;
-	private static long max = -1;
-	private static String filter = "";
+	/** Configuration key of the string file names must contain. */
+	public static final String CONF_FILTER = "charcount.input.filter";
 
-	public static void setFilter(String filter) {
-		SimpleInputFilter.filter = filter;
+	/** Configuration key of the maximum number of files, -1 for all. */
+	public static final String CONF_MAX = "charcount.input.max";
+
+	private Configuration conf;
+	private int count = 0;
+	private long max = -1;
+	private String filter = "";
+
+	public static void setFilter(Configuration conf, String filter) {
+		conf.set(CONF_FILTER, filter);
+	}
+
+	public static String getFilter(Configuration conf) {
+		return conf.get(CONF_FILTER, "");
 	}
 
-	public static void setMax(long newmax) {
-		max = newmax;
+	public static void setMax(Configuration conf, long max) {
+		conf.setLong(CONF_MAX, max);
+	}
+
+	public static long getMax(Configuration conf) {
+		return conf.getLong(CONF_MAX, -1);
 	}
 
 	@Override
-	public boolean accept(Path path) {
-		
-		System.out.println("The requested path is; " + path.toString());
+	public void setConf(Configuration conf) {
+		this.conf = conf;
+		filter = getFilter(conf);
+		max = getMax(conf);
+	}
 
-		if (!path.getName().contains(filter)) {
+	@Override
+	public Configuration getConf() {
+		return conf;
+	}
+
+	/** Returns whether the file name contains the filter string, ignoring the maximum. */
+	public boolean matches(Path path) {
+		return path.getName().contains(filter);
+	}
+
+	@Override
+	public boolean accept(Path path) {
+		if (!matches(path)) {
 			return false;
 		}
 
@@ -42,4 +78,4 @@ public class SimpleInputFilter implements PathFilter {
 
 		return true;
 	}
-}
\ No newline at end of file
+}
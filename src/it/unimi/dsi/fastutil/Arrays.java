@@ -18,13 +18,18 @@ package it.unimi.dsi.fastutil;
 
 import it.unimi.dsi.fastutil.ints.IntComparator;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
 /** A class providing static methods and objects that do useful things with arrays.
  *
  * <p>In addition to commodity methods, this class contains {@link Swapper}-based implementations
  * of {@linkplain #quickSort(int, int, IntComparator, Swapper) quicksort} and of
  * a stable, in-place {@linkplain #mergeSort(int, int, IntComparator, Swapper) mergesort}. These
  * generic sorting methods can be used to sort any kind of list, but they find their natural
- * usage, for instance, in sorting arrays in parallel.
+ * usage, for instance, in sorting arrays in parallel. Both have fork/join {@linkplain #parallelQuickSort(int, int, IntComparator, Swapper) parallel}
+ * {@linkplain #parallelMergeSort(int, int, IntComparator, Swapper) variants}, which the type-specific classes use, too.
  *
  * @see Arrays
  */
@@ -321,4 +326,167 @@ public class Arrays {
 	private static void vecSwap( final Swapper swapper, int from, int l, final int s ) {
 		for ( int i = 0; i < s; i++, from++, l++ ) swapper.swap( from, l );
 	}
+
+	/** The number of elements under which the parallel sorts of this package hand a range to the sequential ones.
+	 *
+	 * <p>It can be set with the system property <code>it.unimi.dsi.fastutil.parallelSortNoFork</code>; below a few
+	 * thousand elements forking a task costs more than sorting the range. */
+	public static final int PARALLEL_SORT_NO_FORK = Integer.getInteger( "it.unimi.dsi.fastutil.parallelSortNoFork", 8192 ).intValue();
+
+	/** Runs a sort task in the current fork/join pool, or in a new one with a thread per processor.
+	 *
+	 * @param task the task to be run.
+	 */
+	public static void invokeSortTask( final ForkJoinTask<?> task ) {
+		if ( ForkJoinTask.inForkJoinPool() ) {
+			task.invoke();
+			return;
+		}
+		final ForkJoinPool pool = new ForkJoinPool( Runtime.getRuntime().availableProcessors() );
+		try {
+			pool.invoke( task );
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/** A parallel in-place mergesort; see {@link Arrays#parallelMergeSort(int, int, IntComparator, Swapper)}. */
+	private static final class MergeSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+		private final IntComparator comp;
+		private final Swapper swapper;
+
+		public MergeSortTask( final int from, final int to, final IntComparator comp, final Swapper swapper ) {
+			this.from = from;
+			this.to = to;
+			this.comp = comp;
+			this.swapper = swapper;
+		}
+
+		@Override
+		protected void compute() {
+			if ( to - from < PARALLEL_SORT_NO_FORK ) {
+				mergeSort( from, to, comp, swapper );
+				return;
+			}
+
+			// Sort halves in parallel
+			final int mid = ( from + to ) >>> 1;
+			invokeAll( new MergeSortTask( from, mid, comp, swapper ), new MergeSortTask( mid, to, comp, swapper ) );
+
+			if ( comp.compare( mid - 1, mid ) <= 0 ) return;
+			inPlaceMerge( from, mid, to, comp, swapper );
+		}
+	}
+
+	/** Sorts the specified range of elements using the specified swapper and according to the order induced by the specified
+	 * comparator using a parallel mergesort.
+	 *
+	 * <p>This method behaves as {@link #mergeSort(int, int, IntComparator, Swapper)}, but sorts the two halves of each range
+	 * longer than {@link #PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if any, or a new
+	 * one with a thread per processor. The merges are sequential. The comparator and the swapper will be called concurrently
+	 * on disjoint ranges of positions.
+	 *
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 * @param comp the comparator to determine the order of the generic data (arguments are positions).
+	 * @param swapper an object that knows how to swap the elements at any two positions.
+	 */
+	public static void parallelMergeSort( final int from, final int to, final IntComparator comp, final Swapper swapper ) {
+		if ( to - from < PARALLEL_SORT_NO_FORK ) mergeSort( from, to, comp, swapper );
+		else invokeSortTask( new MergeSortTask( from, to, comp, swapper ) );
+	}
+
+	/** A parallel quicksort; see {@link Arrays#parallelQuickSort(int, int, IntComparator, Swapper)}. */
+	private static final class QuickSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+		private final IntComparator comp;
+		private final Swapper swapper;
+
+		public QuickSortTask( final int from, final int to, final IntComparator comp, final Swapper swapper ) {
+			this.from = from;
+			this.to = to;
+			this.comp = comp;
+			this.swapper = swapper;
+		}
+
+		@Override
+		protected void compute() {
+			final int len = to - from;
+			if ( len < PARALLEL_SORT_NO_FORK ) {
+				quickSort( from, to, comp, swapper );
+				return;
+			}
+
+			// Choose a partition element, pseudomedian of 9
+			final int s8 = len / 8;
+			int l = from, m = from + len / 2, n = to - 1;
+			l = med3( l, l + s8, l + 2 * s8, comp );
+			m = med3( m - s8, m, m + s8, comp );
+			n = med3( n - 2 * s8, n - s8, n, comp );
+			m = med3( l, m, n, comp );
+
+			int a = from, b = a, c = to - 1, d = c;
+			// Establish Invariant: v* (<v)* (>v)* v*
+			while ( true ) {
+				int comparison;
+				while ( b <= c && ( ( comparison = comp.compare( b, m ) ) <= 0 ) ) {
+					if ( comparison == 0 ) {
+						if ( a == m ) m = b; // moving target; DELTA to JDK !!!
+						else if ( b == m ) m = a; // moving target; DELTA to JDK !!!
+						swapper.swap( a++, b );
+					}
+					b++;
+				}
+				while ( c >= b && ( ( comparison = comp.compare( c, m ) ) >= 0 ) ) {
+					if ( comparison == 0 ) {
+						if ( c == m ) m = d; // moving target; DELTA to JDK !!!
+						else if ( d == m ) m = c; // moving target; DELTA to JDK !!!
+						swapper.swap( c, d-- );
+					}
+					c--;
+				}
+				if ( b > c ) break;
+				if ( b == m ) m = d; // moving target; DELTA to JDK !!!
+				else if ( c == m ) m = c; // moving target; DELTA to JDK !!!
+				swapper.swap( b++, c-- );
+			}
+
+			// Swap partition elements back to middle
+			int s;
+			s = Math.min( a - from, b - a );
+			vecSwap( swapper, from, b - s, s );
+			s = Math.min( d - c, to - d - 1 );
+			vecSwap( swapper, b, to - s, s );
+
+			// Sort non-partition-elements in parallel
+			final int s1 = b - a, s2 = d - c;
+			if ( s1 > 1 && s2 > 1 ) invokeAll( new QuickSortTask( from, from + s1, comp, swapper ), new QuickSortTask( to - s2, to, comp, swapper ) );
+			else if ( s1 > 1 ) new QuickSortTask( from, from + s1, comp, swapper ).compute();
+			else if ( s2 > 1 ) new QuickSortTask( to - s2, to, comp, swapper ).compute();
+		}
+	}
+
+	/** Sorts the specified range of elements using the specified swapper and according to the order induced by the specified
+	 * comparator using a parallel quicksort.
+	 *
+	 * <p>This method behaves as {@link #quickSort(int, int, IntComparator, Swapper)}, but sorts the two sides of each partition
+	 * of a range longer than {@link #PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if any,
+	 * or a new one with a thread per processor. The comparator and the swapper will be called concurrently on disjoint ranges
+	 * of positions.
+	 *
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 * @param comp the comparator to determine the order of the generic data.
+	 * @param swapper an object that knows how to swap the elements at any two positions.
+	 */
+	public static void parallelQuickSort( final int from, final int to, final IntComparator comp, final Swapper swapper ) {
+		if ( to - from < PARALLEL_SORT_NO_FORK ) quickSort( from, to, comp, swapper );
+		else invokeSortTask( new QuickSortTask( from, to, comp, swapper ) );
+	}
 }
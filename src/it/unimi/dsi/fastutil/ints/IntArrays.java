@@ -57,6 +57,7 @@ package it.unimi.dsi.fastutil.ints;
 import it.unimi.dsi.fastutil.Arrays;
 import it.unimi.dsi.fastutil.Hash;
 import java.util.Random;
+import java.util.concurrent.RecursiveAction;
 /** A class providing static methods and objects that do useful things with type-specific arrays.
  *
  * <p>In particular, the <code>ensureCapacity()</code>, <code>grow()</code>,
@@ -638,6 +639,289 @@ public class IntArrays {
  public static void mergeSort( final int a[], IntComparator comp ) {
   mergeSort( a, 0, a.length, comp );
  }
+ /** A parallel quicksort in natural order; see {@link #parallelQuickSort(int[], int, int)}. */
+ private static final class QuickSortTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final int[] x;
+  private final int from;
+  private final int to;
+  public QuickSortTask( final int[] x, final int from, final int to ) {
+   this.x = x;
+   this.from = from;
+   this.to = to;
+  }
+  @Override
+  protected void compute() {
+   final int[] x = this.x;
+   final int len = to - from;
+   if ( len < Arrays.PARALLEL_SORT_NO_FORK ) {
+    quickSort( x, from, to );
+    return;
+   }
+   // Choose a partition element, v, as the pseudomedian of 9
+   final int s8 = len / 8;
+   int l = from, m = from + len / 2, n = to - 1;
+   l = med3( x, l, l + s8, l + 2 * s8 );
+   m = med3( x, m - s8, m, m + s8 );
+   n = med3( x, n - 2 * s8, n - s8, n );
+   m = med3( x, l, m, n );
+   final int v = x[ m ];
+   // Establish Invariant: v* (<v)* (>v)* v*
+   int a = from, b = a, c = to - 1, d = c;
+   while(true) {
+    int comparison;
+    while ( b <= c && ( comparison = ( (x[ b ]) < (v) ? -1 : ( (x[ b ]) == (v) ? 0 : 1 ) ) ) <= 0 ) {
+     if ( comparison == 0 ) swap( x, a++, b );
+     b++;
+    }
+    while (c >= b && ( comparison = ( (x[ c ]) < (v) ? -1 : ( (x[ c ]) == (v) ? 0 : 1 ) ) ) >=0 ) {
+     if ( comparison == 0 ) swap( x, c, d-- );
+     c--;
+    }
+    if ( b > c ) break;
+    swap( x, b++, c-- );
+   }
+   // Swap partition elements back to middle
+   int s;
+   s = Math.min( a - from, b - a );
+   vecSwap( x, from, b - s, s );
+   s = Math.min( d - c, to - d - 1 );
+   vecSwap( x, b, to - s, s );
+   // Sort non-partition-elements in parallel
+   final int s1 = b - a, s2 = d - c;
+   if ( s1 > 1 && s2 > 1 ) invokeAll( new QuickSortTask( x, from, from + s1 ), new QuickSortTask( x, to - s2, to ) );
+   else if ( s1 > 1 ) new QuickSortTask( x, from, from + s1 ).compute();
+   else if ( s2 > 1 ) new QuickSortTask( x, to - s2, to ).compute();
+  }
+ }
+ /** Sorts the specified range of elements according to the natural ascending order using a parallel quicksort.
+	 *
+	 * <p>This method behaves as {@link #quickSort(int[], int, int)}, but sorts the two sides of each partition of a range
+	 * longer than {@link Arrays#PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if any,
+	 * or a new one with a thread per processor.
+	 *
+	 * @param x the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 */
+ public static void parallelQuickSort( final int[] x, final int from, final int to ) {
+  if ( to - from < Arrays.PARALLEL_SORT_NO_FORK ) quickSort( x, from, to );
+  else Arrays.invokeSortTask( new QuickSortTask( x, from, to ) );
+ }
+ /** Sorts an array according to the natural ascending order using a parallel quicksort.
+	 *
+	 * @param x the array to be sorted.
+	 * @see #parallelQuickSort(int[], int, int)
+	 */
+ public static void parallelQuickSort( final int[] x ) {
+  parallelQuickSort( x, 0, x.length );
+ }
+ /** A parallel quicksort with a comparator; see {@link #parallelQuickSort(int[], int, int, IntComparator)}. */
+ private static final class QuickSortComparatorTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final int[] x;
+  private final int from;
+  private final int to;
+  private final IntComparator comp;
+  public QuickSortComparatorTask( final int[] x, final int from, final int to, final IntComparator comp ) {
+   this.x = x;
+   this.from = from;
+   this.to = to;
+   this.comp = comp;
+  }
+  @Override
+  protected void compute() {
+   final int[] x = this.x;
+   final int len = to - from;
+   if ( len < Arrays.PARALLEL_SORT_NO_FORK ) {
+    quickSort( x, from, to, comp );
+    return;
+   }
+   // Choose a partition element, v, as the pseudomedian of 9
+   final int s8 = len / 8;
+   int l = from, m = from + len / 2, n = to - 1;
+   l = med3( x, l, l + s8, l + 2 * s8, comp );
+   m = med3( x, m - s8, m, m + s8, comp );
+   n = med3( x, n - 2 * s8, n - s8, n, comp );
+   m = med3( x, l, m, n, comp );
+   final int v = x[ m ];
+   // Establish Invariant: v* (<v)* (>v)* v*
+   int a = from, b = a, c = to - 1, d = c;
+   while(true) {
+    int comparison;
+    while ( b <= c && ( comparison = comp.compare( x[ b ], v ) ) <= 0 ) {
+     if ( comparison == 0 ) swap( x, a++, b );
+     b++;
+    }
+    while (c >= b && ( comparison = comp.compare( x[ c ], v ) ) >=0 ) {
+     if ( comparison == 0 ) swap( x, c, d-- );
+     c--;
+    }
+    if ( b > c ) break;
+    swap( x, b++, c-- );
+   }
+   // Swap partition elements back to middle
+   int s;
+   s = Math.min( a - from, b - a );
+   vecSwap( x, from, b - s, s );
+   s = Math.min( d - c, to - d - 1 );
+   vecSwap( x, b, to - s, s );
+   // Sort non-partition-elements in parallel
+   final int s1 = b - a, s2 = d - c;
+   if ( s1 > 1 && s2 > 1 ) invokeAll( new QuickSortComparatorTask( x, from, from + s1, comp ), new QuickSortComparatorTask( x, to - s2, to, comp ) );
+   else if ( s1 > 1 ) new QuickSortComparatorTask( x, from, from + s1, comp ).compute();
+   else if ( s2 > 1 ) new QuickSortComparatorTask( x, to - s2, to, comp ).compute();
+  }
+ }
+ /** Sorts the specified range of elements according to the order induced by the specified
+	 * comparator using a parallel quicksort.
+	 *
+	 * <p>This method behaves as {@link #quickSort(int[], int, int, IntComparator)}, but sorts the two sides of each partition of a
+	 * range longer than {@link Arrays#PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if
+	 * any, or a new one with a thread per processor. The comparator will be called concurrently.
+	 *
+	 * @param x the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 * @param comp the comparator to determine the sorting order.
+	 */
+ public static void parallelQuickSort( final int[] x, final int from, final int to, final IntComparator comp ) {
+  if ( to - from < Arrays.PARALLEL_SORT_NO_FORK ) quickSort( x, from, to, comp );
+  else Arrays.invokeSortTask( new QuickSortComparatorTask( x, from, to, comp ) );
+ }
+ /** Sorts an array according to the order induced by the specified comparator using a parallel quicksort.
+	 *
+	 * @param x the array to be sorted.
+	 * @param comp the comparator to determine the sorting order.
+	 * @see #parallelQuickSort(int[], int, int, IntComparator)
+	 */
+ public static void parallelQuickSort( final int[] x, final IntComparator comp ) {
+  parallelQuickSort( x, 0, x.length, comp );
+ }
+ /** A parallel mergesort in natural order of <code>a</code> into itself, using <code>supp</code>, which has the same
+	 * content in the range, as {@link #mergeSort(int[], int, int, int[])} does. */
+ private static final class MergeSortTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final int[] a;
+  private final int[] supp;
+  private final int from;
+  private final int to;
+  public MergeSortTask( final int[] a, final int[] supp, final int from, final int to ) {
+   this.a = a;
+   this.supp = supp;
+   this.from = from;
+   this.to = to;
+  }
+  @Override
+  protected void compute() {
+   final int[] a = this.a, supp = this.supp;
+   final int len = to - from;
+   if ( len < Arrays.PARALLEL_SORT_NO_FORK ) {
+    mergeSort( a, from, to, supp );
+    return;
+   }
+   // Sort halves of a into supp in parallel
+   final int mid = ( from + to ) >>> 1;
+   invokeAll( new MergeSortTask( supp, a, from, mid ), new MergeSortTask( supp, a, mid, to ) );
+   // If list is already sorted, just copy from supp to a
+   if ( ( (supp[ mid - 1 ]) <= (supp[ mid ]) ) ) {
+    System.arraycopy( supp, from, a, from, len );
+    return;
+   }
+   // Merge sorted halves (now in supp) into a
+   for( int i = from, p = from, q = mid; i < to; i++ ) {
+    if ( q >= to || p < mid && ( (supp[ p ]) <= (supp[ q ]) ) ) a[ i ] = supp[ p++ ];
+    else a[ i ] = supp[ q++ ];
+   }
+  }
+ }
+ /** Sorts the specified range of elements according to the natural ascending order using a parallel mergesort.
+	 *
+	 * <p>This method behaves as {@link #mergeSort(int[], int, int)}, but sorts the two halves of each range longer than
+	 * {@link Arrays#PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if any, or a new one
+	 * with a thread per processor. The sort is stable, the merges are sequential, and an array as large as <code>a</code> will
+	 * be allocated by this method.
+	 *
+	 * @param a the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 */
+ public static void parallelMergeSort( final int a[], final int from, final int to ) {
+  if ( to - from < Arrays.PARALLEL_SORT_NO_FORK ) mergeSort( a, from, to );
+  else Arrays.invokeSortTask( new MergeSortTask( a, a.clone(), from, to ) );
+ }
+ /** Sorts an array according to the natural ascending order using a parallel mergesort.
+	 *
+	 * @param a the array to be sorted.
+	 * @see #parallelMergeSort(int[], int, int)
+	 */
+ public static void parallelMergeSort( final int a[] ) {
+  parallelMergeSort( a, 0, a.length );
+ }
+ /** A parallel mergesort with a comparator; see {@link MergeSortTask}. */
+ private static final class MergeSortComparatorTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final int[] a;
+  private final int[] supp;
+  private final int from;
+  private final int to;
+  private final IntComparator comp;
+  public MergeSortComparatorTask( final int[] a, final int[] supp, final int from, final int to, final IntComparator comp ) {
+   this.a = a;
+   this.supp = supp;
+   this.from = from;
+   this.to = to;
+   this.comp = comp;
+  }
+  @Override
+  protected void compute() {
+   final int[] a = this.a, supp = this.supp;
+   final int len = to - from;
+   if ( len < Arrays.PARALLEL_SORT_NO_FORK ) {
+    mergeSort( a, from, to, comp, supp );
+    return;
+   }
+   // Sort halves of a into supp in parallel
+   final int mid = ( from + to ) >>> 1;
+   invokeAll( new MergeSortComparatorTask( supp, a, from, mid, comp ), new MergeSortComparatorTask( supp, a, mid, to, comp ) );
+   // If list is already sorted, just copy from supp to a
+   if ( comp.compare( supp[ mid - 1 ], supp[ mid ] ) <= 0 ) {
+    System.arraycopy( supp, from, a, from, len );
+    return;
+   }
+   // Merge sorted halves (now in supp) into a
+   for( int i = from, p = from, q = mid; i < to; i++ ) {
+    if ( q >= to || p < mid && comp.compare( supp[ p ], supp[ q ] ) <= 0 ) a[ i ] = supp[ p++ ];
+    else a[ i ] = supp[ q++ ];
+   }
+  }
+ }
+ /** Sorts the specified range of elements according to the order induced by the specified
+	 * comparator using a parallel mergesort.
+	 *
+	 * <p>This method behaves as {@link #mergeSort(int[], int, int, IntComparator)}, but sorts the two halves of each range longer
+	 * than {@link Arrays#PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if any, or a new
+	 * one with a thread per processor. The sort is stable, the merges are sequential, the comparator will be called
+	 * concurrently, and an array as large as <code>a</code> will be allocated by this method.
+	 *
+	 * @param a the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 * @param comp the comparator to determine the sorting order.
+	 */
+ public static void parallelMergeSort( final int a[], final int from, final int to, final IntComparator comp ) {
+  if ( to - from < Arrays.PARALLEL_SORT_NO_FORK ) mergeSort( a, from, to, comp );
+  else Arrays.invokeSortTask( new MergeSortComparatorTask( a, a.clone(), from, to, comp ) );
+ }
+ /** Sorts an array according to the order induced by the specified comparator using a parallel mergesort.
+	 *
+	 * @param a the array to be sorted.
+	 * @param comp the comparator to determine the sorting order.
+	 * @see #parallelMergeSort(int[], int, int, IntComparator)
+	 */
+ public static void parallelMergeSort( final int a[], final IntComparator comp ) {
+  parallelMergeSort( a, 0, a.length, comp );
+ }
  /**
 	 * Searches a range of the specified array for the specified value using 
 	 * the binary search algorithm. The range must be sorted prior to making this call. 
@@ -0,0 +1,193 @@
+package it.unimi.dsi.fastutil.longs;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.AbstractObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** A lock-free hash map from longs to counters, shared by any number of threads.
+ *
+ * <P>The layout is the one of {@link Long2LongOpenHashMap}: a power-of-two table
+ * probed linearly from the {@link HashCommon#murmurHash3(long)} of the key. A
+ * free slot holds the key zero; a thread claims it by compare-and-swap on the key
+ * and then adds to the value atomically, so concurrent {@link #add(long, long)}
+ * calls never lose an increment. The key zero itself is counted apart.
+ *
+ * <P>Entries are never removed and the table is never enlarged, as moving
+ * entries under concurrent writers would need locks: the capacity given at
+ * construction is final, and {@link #add(long, long)} throws an
+ * {@link IllegalStateException} once it is exhausted.
+ *
+ * <P>Reads are safe at any time, but only see a consistent snapshot once all
+ * writers are done; {@link #clear()} must not run concurrently with anything.
+ *
+ * @see Long2LongOpenHashMap
+ */
+public class ConcurrentLong2LongCounterMap implements Hash {
+	/** The array of keys; zero marks a free slot. */
+	protected final AtomicLongArray key;
+	/** The array of counters. */
+	protected final AtomicLongArray value;
+	/** The counter of the key zero, which cannot be stored in the table. */
+	protected final AtomicLong zeroValue = new AtomicLong();
+	/** Whether the key zero has been added. */
+	protected volatile boolean containsZero;
+	/** The acceptable load factor. */
+	protected final float f;
+	/** The table size. */
+	protected final int n;
+	/** The maximum number of keys in the table. */
+	protected final int maxFill;
+	/** The mask for wrapping a position counter. */
+	protected final int mask;
+	/** Number of keys in the table, the key zero excluded. */
+	protected final AtomicLong size = new AtomicLong();
+
+	/** Creates a new map.
+	 *
+	 * <p>The table size will be the least power of two greater than <code>expected</code>/<code>f</code>.
+	 *
+	 * @param expected the maximum number of keys the map must hold.
+	 * @param f the load factor.
+	 */
+	public ConcurrentLong2LongCounterMap( final int expected, final float f ) {
+		if ( f <= 0 || f >= 1 ) throw new IllegalArgumentException( "Load factor must be greater than 0 and smaller than 1" );
+		if ( expected < 0 ) throw new IllegalArgumentException( "The expected number of elements must be nonnegative" );
+		this.f = f;
+		n = HashCommon.arraySize( expected, f );
+		mask = n - 1;
+		maxFill = Math.min( HashCommon.maxFill( n, f ), n - 1 );
+		key = new AtomicLongArray( n );
+		value = new AtomicLongArray( n );
+	}
+
+	/** Creates a new map with {@link Hash#DEFAULT_LOAD_FACTOR} as load factor.
+	 *
+	 * @param expected the maximum number of keys the map must hold.
+	 */
+	public ConcurrentLong2LongCounterMap( final int expected ) {
+		this( expected, DEFAULT_LOAD_FACTOR );
+	}
+
+	/** Adds an increment to the counter of a key, creating it if needed.
+	 *
+	 * @param k the key.
+	 * @param incr the increment.
+	 * @return the previous value of the counter, or zero if the key was absent.
+	 * @throws IllegalStateException if the key is new and the map is full.
+	 */
+	public long add( final long k, final long incr ) {
+		if ( k == 0 ) {
+			if ( ! containsZero ) containsZero = true;
+			return zeroValue.getAndAdd( incr );
+		}
+		int pos = (int)HashCommon.murmurHash3( k ) & mask;
+		for(;;) {
+			long cur = key.get( pos );
+			if ( cur == 0 ) {
+				// Reserve room before claiming the slot, so the table never fills up
+				if ( size.incrementAndGet() > maxFill ) {
+					size.decrementAndGet();
+					throw new IllegalStateException( "Map full (" + maxFill + " keys)" );
+				}
+				if ( key.compareAndSet( pos, 0, k ) ) return value.getAndAdd( pos, incr );
+				size.decrementAndGet();
+				// Somebody else got the slot first; it may have been for our key
+				cur = key.get( pos );
+			}
+			if ( cur == k ) return value.getAndAdd( pos, incr );
+			pos = ( pos + 1 ) & mask;
+		}
+	}
+
+	/** Returns the counter of a key, or zero if the key is absent. */
+	public long get( final long k ) {
+		if ( k == 0 ) return zeroValue.get();
+		int pos = (int)HashCommon.murmurHash3( k ) & mask;
+		long cur;
+		while ( ( cur = key.get( pos ) ) != 0 ) {
+			if ( cur == k ) return value.get( pos );
+			pos = ( pos + 1 ) & mask;
+		}
+		return 0;
+	}
+
+	public boolean containsKey( final long k ) {
+		if ( k == 0 ) return containsZero;
+		int pos = (int)HashCommon.murmurHash3( k ) & mask;
+		long cur;
+		while ( ( cur = key.get( pos ) ) != 0 ) {
+			if ( cur == k ) return true;
+			pos = ( pos + 1 ) & mask;
+		}
+		return false;
+	}
+
+	/** Returns the number of keys. */
+	public int size() {
+		return (int)size.get() + ( containsZero ? 1 : 0 );
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/** Returns the number of keys the map can hold. */
+	public int capacity() {
+		return maxFill;
+	}
+
+	/** Removes all keys. Not thread-safe. */
+	public void clear() {
+		for( int i = n; i-- != 0; ) {
+			key.set( i, 0 );
+			value.set( i, 0 );
+		}
+		zeroValue.set( 0 );
+		containsZero = false;
+		size.set( 0 );
+	}
+
+	/** The entry returned by {@link #fastIterator()}, reused at every step. */
+	private static final class MapEntry extends AbstractLong2LongMap.BasicEntry {
+		MapEntry() {
+			super( 0, 0 );
+		}
+		public long setValue( final long v ) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/** Returns an iterator over the entries that returns always the same mutable entry.
+	 * Keys added while iterating may or may not be returned.
+	 */
+	public ObjectIterator<Long2LongMap.Entry> fastIterator() {
+		return new AbstractObjectIterator<Long2LongMap.Entry>() {
+			private final MapEntry entry = new MapEntry();
+			/** The next position to look at; -1 stands for the key zero. */
+			private int pos = containsZero ? -1 : 0;
+			public boolean hasNext() {
+				if ( pos == -1 ) return true;
+				while ( pos < n && key.get( pos ) == 0 ) pos++;
+				return pos < n;
+			}
+			public Long2LongMap.Entry next() {
+				if ( ! hasNext() ) throw new NoSuchElementException();
+				if ( pos == -1 ) {
+					entry.key = 0;
+					entry.value = zeroValue.get();
+				}
+				else {
+					entry.key = key.get( pos );
+					entry.value = value.get( pos );
+				}
+				pos++;
+				return entry;
+			}
+		};
+	}
+}
@@ -0,0 +1,333 @@
+package it.unimi.dsi.fastutil.longs;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.Size64;
+import it.unimi.dsi.fastutil.objects.AbstractObjectIterator;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+import java.io.Closeable;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/** A type-specific hash map whose table lives outside the Java heap.
+ *
+ * <P>The table is the one of {@link Long2LongOpenHashMap}, linearly probed from
+ * the {@link HashCommon#murmurHash3(long)} of the key, but keys and values are
+ * interleaved in 16-byte slots of native memory. The garbage collector sees a
+ * handful of fields whatever the size of the map, and since positions are longs
+ * the table can grow beyond 2<sup>31</sup> slots; {@link #size64()} gives the
+ * exact size when {@link #size()} cannot. A free slot holds the key zero; the key
+ * zero itself is stored apart.
+ *
+ * <P>Native memory is not reclaimed by the garbage collector: {@link #close()}
+ * must be called when the map is no longer needed, and the map must not be
+ * used afterwards. Iterators do not support removal, and instances cannot be
+ * serialized.
+ *
+ * @see Long2LongOpenHashMap
+ */
+public class Long2LongOffHeapHashMap extends AbstractLong2LongMap implements Hash, Size64, Closeable {
+	public static final long serialVersionUID = 0L;
+
+	/** The number of bytes of a slot: a key and its value. */
+	private static final int SLOT_SHIFT = 4;
+
+	/** The address of the table, or zero once closed. */
+	protected transient long address;
+	/** The acceptable load factor. */
+	protected final float f;
+	/** The current table size. */
+	protected transient long n;
+	/** Threshold after which we rehash. It must be the table size times {@link #f}. */
+	protected transient long maxFill;
+	/** The mask for wrapping a position counter. */
+	protected transient long mask;
+	/** Number of entries in the table, the key zero excluded. */
+	protected long size;
+	/** Whether the key zero is in the map. */
+	protected boolean containsNullKey;
+	/** The value of the key zero. */
+	protected long nullValue;
+	/** Cached set of entries. */
+	protected transient volatile FastEntrySet entries;
+
+	/** Creates a new hash map.
+	 *
+	 * <p>The actual table size will be the least power of two greater than <code>expected</code>/<code>f</code>.
+	 *
+	 * @param expected the expected number of elements in the hash map.
+	 * @param f the load factor.
+	 */
+	public Long2LongOffHeapHashMap( final long expected, final float f ) {
+		if ( f <= 0 || f > 1 ) throw new IllegalArgumentException( "Load factor must be greater than 0 and smaller than or equal to 1" );
+		if ( expected < 0 ) throw new IllegalArgumentException( "The expected number of elements must be nonnegative" );
+		this.f = f;
+		allocate( Math.max( 2, HashCommon.bigArraySize( expected, f ) ) );
+	}
+
+	/** Creates a new hash map with {@link Hash#DEFAULT_LOAD_FACTOR} as load factor.
+	 *
+	 * @param expected the expected number of elements in the hash map.
+	 */
+	public Long2LongOffHeapHashMap( final long expected ) {
+		this( expected, DEFAULT_LOAD_FACTOR );
+	}
+
+	/** Creates a new hash map with initial expected {@link Hash#DEFAULT_INITIAL_SIZE} entries
+	 * and {@link Hash#DEFAULT_LOAD_FACTOR} as load factor.
+	 */
+	public Long2LongOffHeapHashMap() {
+		this( DEFAULT_INITIAL_SIZE, DEFAULT_LOAD_FACTOR );
+	}
+
+	private void allocate( final long newN ) {
+		final long bytes = newN << SLOT_SHIFT;
+		address = NativeMemory.allocate( bytes );
+		n = newN;
+		mask = newN - 1;
+		maxFill = HashCommon.maxFill( newN, f );
+	}
+
+	private long key( final long pos ) {
+		return NativeMemory.getLong( address + ( pos << SLOT_SHIFT ) );
+	}
+
+	private long value( final long pos ) {
+		return NativeMemory.getLong( address + ( pos << SLOT_SHIFT ) + 8 );
+	}
+
+	private void key( final long pos, final long k ) {
+		NativeMemory.putLong( address + ( pos << SLOT_SHIFT ), k );
+	}
+
+	private void value( final long pos, final long v ) {
+		NativeMemory.putLong( address + ( pos << SLOT_SHIFT ) + 8, v );
+	}
+
+	/** Returns the position of <code>k</code>, or of the free slot where it would go. */
+	private long find( final long k ) {
+		long pos = HashCommon.murmurHash3( k ) & mask;
+		long cur;
+		// There's always an unused entry.
+		while( ( cur = key( pos ) ) != 0 ) {
+			if ( cur == k ) return pos;
+			pos = ( pos + 1 ) & mask;
+		}
+		return pos;
+	}
+
+	private void insert( final long pos, final long k, final long v ) {
+		key( pos, k );
+		value( pos, v );
+		if ( ++size >= maxFill ) rehash( HashCommon.bigArraySize( size + 1, f ) );
+	}
+
+	public long put( final long k, final long v ) {
+		if ( k == 0 ) {
+			final long oldValue = containsNullKey ? nullValue : defRetValue;
+			containsNullKey = true;
+			nullValue = v;
+			return oldValue;
+		}
+		final long pos = find( k );
+		if ( key( pos ) == 0 ) {
+			insert( pos, k, v );
+			return defRetValue;
+		}
+		final long oldValue = value( pos );
+		value( pos, v );
+		return oldValue;
+	}
+
+	/** Adds an increment to value currently associated with a key.
+	 *
+	 * @param k the key.
+	 * @param incr the increment.
+	 * @return the old value, or the {@linkplain #defaultReturnValue() default return value} if no value was present for the given key.
+	 * @see Long2LongOpenHashMap#add(long, long)
+	 */
+	public long add( final long k, final long incr ) {
+		if ( k == 0 ) {
+			final long oldValue = containsNullKey ? nullValue : defRetValue;
+			containsNullKey = true;
+			nullValue = oldValue + incr;
+			return oldValue;
+		}
+		final long pos = find( k );
+		if ( key( pos ) == 0 ) {
+			insert( pos, k, defRetValue + incr );
+			return defRetValue;
+		}
+		final long oldValue = value( pos );
+		value( pos, oldValue + incr );
+		return oldValue;
+	}
+
+	public long get( final long k ) {
+		if ( k == 0 ) return containsNullKey ? nullValue : defRetValue;
+		final long pos = find( k );
+		return key( pos ) == 0 ? defRetValue : value( pos );
+	}
+
+	public boolean containsKey( final long k ) {
+		if ( k == 0 ) return containsNullKey;
+		return key( find( k ) ) != 0;
+	}
+
+	/** Shifts left entries with the specified hash code, starting at the specified position,
+	 * and empties the resulting free entry.
+	 */
+	protected final void shiftKeys( long pos ) {
+		long last, slot, k;
+		for(;;) {
+			pos = ( ( last = pos ) + 1 ) & mask;
+			while( ( k = key( pos ) ) != 0 ) {
+				slot = HashCommon.murmurHash3( k ) & mask;
+				if ( last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos ) break;
+				pos = ( pos + 1 ) & mask;
+			}
+			if ( k == 0 ) break;
+			key( last, k );
+			value( last, value( pos ) );
+		}
+		key( last, 0 );
+	}
+
+	public long remove( final long k ) {
+		if ( k == 0 ) {
+			if ( ! containsNullKey ) return defRetValue;
+			containsNullKey = false;
+			return nullValue;
+		}
+		final long pos = find( k );
+		if ( key( pos ) == 0 ) return defRetValue;
+		final long v = value( pos );
+		size--;
+		shiftKeys( pos );
+		return v;
+	}
+
+	public void clear() {
+		if ( size == 0 && ! containsNullKey ) return;
+		size = 0;
+		containsNullKey = false;
+		NativeMemory.zero( address, n << SLOT_SHIFT );
+	}
+
+	public long size64() {
+		return size + ( containsNullKey ? 1 : 0 );
+	}
+
+	@Deprecated
+	public int size() {
+		return (int)Math.min( Integer.MAX_VALUE, size64() );
+	}
+
+	public boolean isEmpty() {
+		return size64() == 0;
+	}
+
+	/** Returns the number of slots of the table. */
+	public long tableSize() {
+		return n;
+	}
+
+	/** Rehashes the map into a new table of the given size. */
+	protected void rehash( final long newN ) {
+		final long oldAddress = address, oldN = n;
+		allocate( newN );
+		for( long i = 0; i < oldN; i++ ) {
+			final long k = NativeMemory.getLong( oldAddress + ( i << SLOT_SHIFT ) );
+			if ( k != 0 ) {
+				final long pos = find( k );
+				key( pos, k );
+				value( pos, NativeMemory.getLong( oldAddress + ( i << SLOT_SHIFT ) + 8 ) );
+			}
+		}
+		NativeMemory.free( oldAddress );
+	}
+
+	/** Frees the native memory of the table. The map cannot be used afterwards. */
+	public void close() {
+		if ( address != 0 ) {
+			NativeMemory.free( address );
+			address = 0;
+			size = 0;
+			containsNullKey = false;
+		}
+	}
+
+	private void writeObject( final ObjectOutputStream s ) throws NotSerializableException {
+		throw new NotSerializableException( getClass().getName() );
+	}
+
+	/** An iterator over the slots, the key zero first; it returns the position of the next entry, -1 standing for the key zero. */
+	private abstract class MapIterator<K> extends AbstractObjectIterator<K> {
+		long pos = containsNullKey ? -1 : 0;
+		public boolean hasNext() {
+			if ( pos == -1 ) return true;
+			while ( pos < n && key( pos ) == 0 ) pos++;
+			return pos < n;
+		}
+		long nextEntry() {
+			if ( ! hasNext() ) throw new NoSuchElementException();
+			return pos++;
+		}
+	}
+
+	/** An entry writing its value through to the map. */
+	private final class MapEntry extends BasicEntry {
+		MapEntry( final long key, final long value ) {
+			super( key, value );
+		}
+		public long setValue( final long v ) {
+			final long oldValue = value;
+			put( key, value = v );
+			return oldValue;
+		}
+	}
+
+	private final class MapEntrySet extends AbstractObjectSet<Long2LongMap.Entry> implements FastEntrySet {
+		public ObjectIterator<Long2LongMap.Entry> iterator() {
+			return new MapIterator<Long2LongMap.Entry>() {
+				public Long2LongMap.Entry next() {
+					final long e = nextEntry();
+					return e == -1 ? new MapEntry( 0, nullValue ) : new MapEntry( key( e ), value( e ) );
+				}
+			};
+		}
+		public ObjectIterator<Long2LongMap.Entry> fastIterator() {
+			return new MapIterator<Long2LongMap.Entry>() {
+				final BasicEntry entry = new BasicEntry( 0, 0 );
+				public Long2LongMap.Entry next() {
+					final long e = nextEntry();
+					entry.key = e == -1 ? 0 : key( e );
+					entry.value = e == -1 ? nullValue : value( e );
+					return entry;
+				}
+			};
+		}
+		@SuppressWarnings("unchecked")
+		public boolean contains( final Object o ) {
+			if ( !( o instanceof Map.Entry ) ) return false;
+			final Map.Entry<Long, Long> e = (Map.Entry<Long, Long>)o;
+			final long k = e.getKey().longValue();
+			return containsKey( k ) && get( k ) == e.getValue().longValue();
+		}
+		public int size() {
+			return Long2LongOffHeapHashMap.this.size();
+		}
+		public void clear() {
+			Long2LongOffHeapHashMap.this.clear();
+		}
+	}
+
+	public FastEntrySet long2LongEntrySet() {
+		if ( entries == null ) entries = new MapEntrySet();
+		return entries;
+	}
+}
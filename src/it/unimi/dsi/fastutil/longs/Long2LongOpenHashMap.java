@@ -252,6 +252,154 @@ public class Long2LongOpenHashMap extends AbstractLong2LongMap implements java.i
   if ( ASSERTS ) checkTable();
   return defRetValue;
  }
+ /** Makes sure the table can hold the given number of entries without being enlarged.
+	 *
+	 * @param capacity the number of entries the table must be able to hold.
+	 */
+ public void ensureCapacity( final int capacity ) {
+  final int needed = arraySize( capacity, f );
+  if ( needed > n ) rehash( needed );
+ }
+ /** Adds the values of all entries of another map to the values of the same keys in this map.
+	 *
+	 * <P>Keys that are not in this map are added with the {@linkplain #defaultReturnValue() default return value}
+	 * plus their value, as {@link #add(long, long)} does. The table is first enlarged to hold as many entries
+	 * as the larger of the two maps, and then grows, if needed, as new keys arrive, so it is never larger than
+	 * adding the entries one by one would make it; the backing arrays of <code>m</code> are scanned directly.
+	 *
+	 * <P>The table is never left smaller than that of <code>m</code>, because adding many keys in the order of
+	 * the backing arrays of a larger table to a smaller one builds long collision chains.
+	 *
+	 * @param m a map whose entries will be added to this map.
+	 */
+ public void addAll( final Long2LongOpenHashMap m ) {
+  ensureCapacity( Math.max( size, m.size ) );
+  final long k[] = m.key;
+  final long v[] = m.value;
+  final boolean u[] = m.used;
+  for( int i = m.n; i-- != 0; ) if ( u[ i ] ) add( k[ i ], v[ i ] );
+ }
+ /** The minimum number of table positions per region of {@link #parallelAddAll(Long2LongOpenHashMap[])}. */
+ private static final int PARALLEL_MERGE_MIN_REGION = 1 << 16;
+ /** Merges the keys of a map whose hash position falls in a region of the table. */
+ private final class MergeTask extends java.util.concurrent.RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final Long2LongOpenHashMap m;
+  private final int from;
+  private final int to;
+  /** The number of keys the region may hold, so that the whole table never exceeds {@link #maxFill}. */
+  private final int maxFill;
+  /** The number of keys added to the region. */
+  int added;
+  /** The entries that did not fit in the region, to be added once all regions are done. */
+  LongArrayList deferredKeys, deferredValues;
+  MergeTask( final Long2LongOpenHashMap m, final int from, final int to, final int maxFill ) {
+   this.m = m;
+   this.from = from;
+   this.to = to;
+   this.maxFill = maxFill;
+  }
+  @Override
+  protected void compute() {
+   final long key[] = Long2LongOpenHashMap.this.key;
+   final long value[] = Long2LongOpenHashMap.this.value;
+   final boolean used[] = Long2LongOpenHashMap.this.used;
+   final int mask = Long2LongOpenHashMap.this.mask;
+   int fill = 0;
+   for( int i = from; i < to; i++ ) if ( used[ i ] ) fill++;
+   final long k[] = m.key;
+   final long v[] = m.value;
+   final boolean u[] = m.used;
+   entries: for( int i = m.n; i-- != 0; ) {
+    if ( ! u[ i ] ) continue;
+    final long x = k[ i ];
+    int pos = (int)it.unimi.dsi.fastutil.HashCommon.murmurHash3(x) & mask;
+    if ( pos < from || pos >= to ) continue;
+    // Probe within the region only; a key that would leave it is deferred
+    while( used[ pos ] ) {
+     if ( ( (key[ pos ]) == (x) ) ) {
+      value[ pos ] += v[ i ];
+      continue entries;
+     }
+     if ( ++pos == to ) break;
+    }
+    if ( pos == to || fill >= maxFill ) {
+     if ( deferredKeys == null ) {
+      deferredKeys = new LongArrayList();
+      deferredValues = new LongArrayList();
+     }
+     deferredKeys.add( x );
+     deferredValues.add( v[ i ] );
+     continue;
+    }
+    used[ pos ] = true;
+    key[ pos ] = x;
+    value[ pos ] = defRetValue + v[ i ];
+    fill++;
+    added++;
+   }
+  }
+ }
+ /** Adds the values of all entries of the given maps to the values of the same keys in this map, in parallel.
+	 *
+	 * <P>This method has the same result as calling {@link #addAll(Long2LongOpenHashMap)} on each map in turn,
+	 * and, like it, merges one map at a time into a table first enlarged to hold as many entries as the larger
+	 * of the two, so the table is never larger than adding the entries one by one would make it.
+	 * The table is then cut into as many regions as there are processors (rounded down to a power of two),
+	 * of at least 2<sup>16</sup> positions each. Every region is filled by its own fork/join task with the keys
+	 * whose hash position falls in it, read straight from the backing arrays of the map, so the tasks never
+	 * write to the same position. Every task hashes every key, but only inserts its own, and insertions,
+	 * which miss the cache, are what a merge spends its time on. On a single processor, this method just
+	 * calls {@link #addAll(Long2LongOpenHashMap)}.
+	 *
+	 * <P>The keys whose probe sequence would leave their region, or that would fill it beyond the
+	 * load factor, are added sequentially once all regions are done, enlarging the table as needed.
+	 * Maps that share most of their keys, such as counts of the same kind of data, leave few of them.
+	 *
+	 * <P>The maps must not be modified during the merge.
+	 *
+	 * @param maps the maps whose entries will be added to this map.
+	 */
+ public void parallelAddAll( final Long2LongOpenHashMap... maps ) {
+  final int processors = Runtime.getRuntime().availableProcessors();
+  if ( processors == 1 ) {
+   for( Long2LongOpenHashMap m : maps ) addAll( m );
+   return;
+  }
+  final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool( processors );
+  try {
+   for( Long2LongOpenHashMap m : maps ) {
+    ensureCapacity( Math.max( size, m.size ) );
+    final int regions = Integer.highestOneBit( Math.max( 1, Math.min( processors, n / PARALLEL_MERGE_MIN_REGION ) ) );
+    if ( regions == 1 ) {
+     addAll( m );
+     continue;
+    }
+    final int length = n / regions;
+    final MergeTask[] tasks = new MergeTask[ regions ];
+    for( int r = 0; r < regions; r++ ) tasks[ r ] = new MergeTask( m, r * length, ( r + 1 ) * length, maxFill / regions );
+    pool.invoke( new java.util.concurrent.RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     @Override
+     protected void compute() {
+      invokeAll( tasks );
+     }
+    } );
+    for( MergeTask t : tasks ) size += t.added;
+    if ( size >= maxFill ) rehash( arraySize( size + 1, f ) );
+    for( MergeTask t : tasks ) {
+     if ( t.deferredKeys == null ) continue;
+     final long k[] = t.deferredKeys.elements();
+     final long v[] = t.deferredValues.elements();
+     for( int i = t.deferredKeys.size(); i-- != 0; ) add( k[ i ], v[ i ] );
+    }
+   }
+  }
+  finally {
+   pool.shutdown();
+  }
+  if ( ASSERTS ) checkTable();
+ }
  /** Shifts left entries with the specified hash code, starting at the specified position,
 	 * and empties the resulting free entry.
 	 *
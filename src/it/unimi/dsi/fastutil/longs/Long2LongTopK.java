@@ -0,0 +1,133 @@
+package it.unimi.dsi.fastutil.longs;
+
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/** Selects the entries with the largest values among those offered, without sorting them all.
+ *
+ * <P>The selector keeps at most <var>k</var> entries in two parallel arrays of keys and values,
+ * and a {@linkplain LongSemiIndirectHeaps semi-indirect} min-heap of their positions ordered by
+ * value. An entry whose value exceeds the smallest one kept replaces it in place, so selecting
+ * from <var>n</var> entries takes <i>O</i>(<var>n</var>&nbsp;log&nbsp;<var>k</var>) time, and
+ * nothing is allocated after construction. Among entries with the same value, the ones offered
+ * first are kept.
+ *
+ * <P>Entries can be offered one by one, from a {@linkplain Long2LongMap.FastEntrySet#fastIterator() fast iterator},
+ * or from a whole map; the backing arrays of a {@link Long2LongOpenHashMap} are scanned directly.
+ *
+ * @see LongSemiIndirectHeaps
+ */
+public class Long2LongTopK {
+	/** The keys of the entries kept. */
+	protected final long[] key;
+	/** The values of the entries kept, the reference array of {@link #heap}. */
+	protected final long[] value;
+	/** A min-heap of positions in {@link #key} and {@link #value}, ordered by value. */
+	protected final int[] heap;
+	/** The number of entries kept. */
+	protected int size;
+
+	/** Creates a new selector.
+	 *
+	 * @param k the number of entries to select.
+	 */
+	public Long2LongTopK( final int k ) {
+		if ( k < 0 ) throw new IllegalArgumentException( "The number of entries to select must be nonnegative" );
+		key = new long[ k ];
+		value = new long[ k ];
+		heap = new int[ k ];
+	}
+
+	/** Offers an entry.
+	 *
+	 * @param k the key.
+	 * @param v the value.
+	 * @return whether the entry is now among those kept.
+	 */
+	public boolean offer( final long k, final long v ) {
+		if ( size < heap.length ) {
+			key[ size ] = k;
+			value[ size ] = v;
+			heap[ size ] = size;
+			size++;
+			LongSemiIndirectHeaps.upHeap( value, heap, size, size - 1, null );
+			return true;
+		}
+		if ( size == 0 || v <= value[ heap[ 0 ] ] ) return false;
+		final int slot = heap[ 0 ];
+		key[ slot ] = k;
+		value[ slot ] = v;
+		LongSemiIndirectHeaps.downHeap( value, heap, size, 0, null );
+		return true;
+	}
+
+	/** Offers all entries returned by an iterator.
+	 *
+	 * @param i an iterator on entries, usually a fast one that returns always the same entry object.
+	 */
+	public void offer( final ObjectIterator<Long2LongMap.Entry> i ) {
+		while( i.hasNext() ) {
+			final Long2LongMap.Entry e = i.next();
+			offer( e.getLongKey(), e.getLongValue() );
+		}
+	}
+
+	/** Offers all entries of a map, reading the backing arrays of a {@link Long2LongOpenHashMap}, and using
+	 * a fast iterator, if there is one, for other maps.
+	 *
+	 * @param m a map.
+	 */
+	public void offer( final Long2LongMap m ) {
+		if ( m instanceof Long2LongOpenHashMap ) {
+			final Long2LongOpenHashMap h = (Long2LongOpenHashMap)m;
+			final long[] k = h.key;
+			final long[] v = h.value;
+			final boolean[] used = h.used;
+			for( int i = h.n; i-- != 0; ) if ( used[ i ] ) offer( k[ i ], v[ i ] );
+		}
+		else if ( m.long2LongEntrySet() instanceof Long2LongMap.FastEntrySet ) offer( ( (Long2LongMap.FastEntrySet)m.long2LongEntrySet() ).fastIterator() );
+		else offer( m.long2LongEntrySet().iterator() );
+	}
+
+	/** Returns the number of entries kept.
+	 *
+	 * @return the number of entries kept, at most the number of entries to select.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/** Returns the smallest value kept.
+	 *
+	 * @return the smallest value kept; an entry must have a larger one to be kept once {@link #size()} entries are.
+	 * @throws java.util.NoSuchElementException if no entry is kept.
+	 */
+	public long minValue() {
+		if ( size == 0 ) throw new java.util.NoSuchElementException();
+		return value[ heap[ 0 ] ];
+	}
+
+	/** Moves the entries kept to the given arrays, by decreasing value, and empties the selector.
+	 *
+	 * @param keys an array for the keys, at least {@link #size()} long.
+	 * @param values an array for the values, at least {@link #size()} long.
+	 * @return the number of entries moved.
+	 */
+	public int drain( final long[] keys, final long[] values ) {
+		final int n = size;
+		if ( keys.length < n || values.length < n ) throw new IllegalArgumentException( "The arrays are shorter than the number of entries (" + n + ")" );
+		// Pop the smallest entry into the last free position until the heap is empty
+		while( size != 0 ) {
+			final int slot = heap[ 0 ];
+			keys[ size - 1 ] = key[ slot ];
+			values[ size - 1 ] = value[ slot ];
+			heap[ 0 ] = heap[ --size ];
+			if ( size != 0 ) LongSemiIndirectHeaps.downHeap( value, heap, size, 0, null );
+		}
+		return n;
+	}
+
+	/** Empties the selector. */
+	public void clear() {
+		size = 0;
+	}
+}
@@ -57,6 +57,8 @@ package it.unimi.dsi.fastutil.longs;
 import it.unimi.dsi.fastutil.Arrays;
 import it.unimi.dsi.fastutil.Hash;
 import java.util.Random;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 /** A class providing static methods and objects that do useful things with type-specific arrays.
  *
  * <p>In particular, the <code>ensureCapacity()</code>, <code>grow()</code>,
@@ -638,6 +640,289 @@ public class LongArrays {
  public static void mergeSort( final long a[], LongComparator comp ) {
   mergeSort( a, 0, a.length, comp );
  }
+ /** A parallel quicksort in natural order; see {@link #parallelQuickSort(long[], int, int)}. */
+ private static final class QuickSortTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final long[] x;
+  private final int from;
+  private final int to;
+  public QuickSortTask( final long[] x, final int from, final int to ) {
+   this.x = x;
+   this.from = from;
+   this.to = to;
+  }
+  @Override
+  protected void compute() {
+   final long[] x = this.x;
+   final int len = to - from;
+   if ( len < Arrays.PARALLEL_SORT_NO_FORK ) {
+    quickSort( x, from, to );
+    return;
+   }
+   // Choose a partition element, v, as the pseudomedian of 9
+   final int s8 = len / 8;
+   int l = from, m = from + len / 2, n = to - 1;
+   l = med3( x, l, l + s8, l + 2 * s8 );
+   m = med3( x, m - s8, m, m + s8 );
+   n = med3( x, n - 2 * s8, n - s8, n );
+   m = med3( x, l, m, n );
+   final long v = x[ m ];
+   // Establish Invariant: v* (<v)* (>v)* v*
+   int a = from, b = a, c = to - 1, d = c;
+   while(true) {
+    int comparison;
+    while ( b <= c && ( comparison = ( (x[ b ]) < (v) ? -1 : ( (x[ b ]) == (v) ? 0 : 1 ) ) ) <= 0 ) {
+     if ( comparison == 0 ) swap( x, a++, b );
+     b++;
+    }
+    while (c >= b && ( comparison = ( (x[ c ]) < (v) ? -1 : ( (x[ c ]) == (v) ? 0 : 1 ) ) ) >=0 ) {
+     if ( comparison == 0 ) swap( x, c, d-- );
+     c--;
+    }
+    if ( b > c ) break;
+    swap( x, b++, c-- );
+   }
+   // Swap partition elements back to middle
+   int s;
+   s = Math.min( a - from, b - a );
+   vecSwap( x, from, b - s, s );
+   s = Math.min( d - c, to - d - 1 );
+   vecSwap( x, b, to - s, s );
+   // Sort non-partition-elements in parallel
+   final int s1 = b - a, s2 = d - c;
+   if ( s1 > 1 && s2 > 1 ) invokeAll( new QuickSortTask( x, from, from + s1 ), new QuickSortTask( x, to - s2, to ) );
+   else if ( s1 > 1 ) new QuickSortTask( x, from, from + s1 ).compute();
+   else if ( s2 > 1 ) new QuickSortTask( x, to - s2, to ).compute();
+  }
+ }
+ /** Sorts the specified range of elements according to the natural ascending order using a parallel quicksort.
+	 *
+	 * <p>This method behaves as {@link #quickSort(long[], int, int)}, but sorts the two sides of each partition of a range
+	 * longer than {@link Arrays#PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if any,
+	 * or a new one with a thread per processor.
+	 *
+	 * @param x the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 */
+ public static void parallelQuickSort( final long[] x, final int from, final int to ) {
+  if ( to - from < Arrays.PARALLEL_SORT_NO_FORK ) quickSort( x, from, to );
+  else Arrays.invokeSortTask( new QuickSortTask( x, from, to ) );
+ }
+ /** Sorts an array according to the natural ascending order using a parallel quicksort.
+	 *
+	 * @param x the array to be sorted.
+	 * @see #parallelQuickSort(long[], int, int)
+	 */
+ public static void parallelQuickSort( final long[] x ) {
+  parallelQuickSort( x, 0, x.length );
+ }
+ /** A parallel quicksort with a comparator; see {@link #parallelQuickSort(long[], int, int, LongComparator)}. */
+ private static final class QuickSortComparatorTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final long[] x;
+  private final int from;
+  private final int to;
+  private final LongComparator comp;
+  public QuickSortComparatorTask( final long[] x, final int from, final int to, final LongComparator comp ) {
+   this.x = x;
+   this.from = from;
+   this.to = to;
+   this.comp = comp;
+  }
+  @Override
+  protected void compute() {
+   final long[] x = this.x;
+   final int len = to - from;
+   if ( len < Arrays.PARALLEL_SORT_NO_FORK ) {
+    quickSort( x, from, to, comp );
+    return;
+   }
+   // Choose a partition element, v, as the pseudomedian of 9
+   final int s8 = len / 8;
+   int l = from, m = from + len / 2, n = to - 1;
+   l = med3( x, l, l + s8, l + 2 * s8, comp );
+   m = med3( x, m - s8, m, m + s8, comp );
+   n = med3( x, n - 2 * s8, n - s8, n, comp );
+   m = med3( x, l, m, n, comp );
+   final long v = x[ m ];
+   // Establish Invariant: v* (<v)* (>v)* v*
+   int a = from, b = a, c = to - 1, d = c;
+   while(true) {
+    int comparison;
+    while ( b <= c && ( comparison = comp.compare( x[ b ], v ) ) <= 0 ) {
+     if ( comparison == 0 ) swap( x, a++, b );
+     b++;
+    }
+    while (c >= b && ( comparison = comp.compare( x[ c ], v ) ) >=0 ) {
+     if ( comparison == 0 ) swap( x, c, d-- );
+     c--;
+    }
+    if ( b > c ) break;
+    swap( x, b++, c-- );
+   }
+   // Swap partition elements back to middle
+   int s;
+   s = Math.min( a - from, b - a );
+   vecSwap( x, from, b - s, s );
+   s = Math.min( d - c, to - d - 1 );
+   vecSwap( x, b, to - s, s );
+   // Sort non-partition-elements in parallel
+   final int s1 = b - a, s2 = d - c;
+   if ( s1 > 1 && s2 > 1 ) invokeAll( new QuickSortComparatorTask( x, from, from + s1, comp ), new QuickSortComparatorTask( x, to - s2, to, comp ) );
+   else if ( s1 > 1 ) new QuickSortComparatorTask( x, from, from + s1, comp ).compute();
+   else if ( s2 > 1 ) new QuickSortComparatorTask( x, to - s2, to, comp ).compute();
+  }
+ }
+ /** Sorts the specified range of elements according to the order induced by the specified
+	 * comparator using a parallel quicksort.
+	 *
+	 * <p>This method behaves as {@link #quickSort(long[], int, int, LongComparator)}, but sorts the two sides of each partition of a
+	 * range longer than {@link Arrays#PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if
+	 * any, or a new one with a thread per processor. The comparator will be called concurrently.
+	 *
+	 * @param x the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 * @param comp the comparator to determine the sorting order.
+	 */
+ public static void parallelQuickSort( final long[] x, final int from, final int to, final LongComparator comp ) {
+  if ( to - from < Arrays.PARALLEL_SORT_NO_FORK ) quickSort( x, from, to, comp );
+  else Arrays.invokeSortTask( new QuickSortComparatorTask( x, from, to, comp ) );
+ }
+ /** Sorts an array according to the order induced by the specified comparator using a parallel quicksort.
+	 *
+	 * @param x the array to be sorted.
+	 * @param comp the comparator to determine the sorting order.
+	 * @see #parallelQuickSort(long[], int, int, LongComparator)
+	 */
+ public static void parallelQuickSort( final long[] x, final LongComparator comp ) {
+  parallelQuickSort( x, 0, x.length, comp );
+ }
+ /** A parallel mergesort in natural order of <code>a</code> into itself, using <code>supp</code>, which has the same
+	 * content in the range, as {@link #mergeSort(long[], int, int, long[])} does. */
+ private static final class MergeSortTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final long[] a;
+  private final long[] supp;
+  private final int from;
+  private final int to;
+  public MergeSortTask( final long[] a, final long[] supp, final int from, final int to ) {
+   this.a = a;
+   this.supp = supp;
+   this.from = from;
+   this.to = to;
+  }
+  @Override
+  protected void compute() {
+   final long[] a = this.a, supp = this.supp;
+   final int len = to - from;
+   if ( len < Arrays.PARALLEL_SORT_NO_FORK ) {
+    mergeSort( a, from, to, supp );
+    return;
+   }
+   // Sort halves of a into supp in parallel
+   final int mid = ( from + to ) >>> 1;
+   invokeAll( new MergeSortTask( supp, a, from, mid ), new MergeSortTask( supp, a, mid, to ) );
+   // If list is already sorted, just copy from supp to a
+   if ( ( (supp[ mid - 1 ]) <= (supp[ mid ]) ) ) {
+    System.arraycopy( supp, from, a, from, len );
+    return;
+   }
+   // Merge sorted halves (now in supp) into a
+   for( int i = from, p = from, q = mid; i < to; i++ ) {
+    if ( q >= to || p < mid && ( (supp[ p ]) <= (supp[ q ]) ) ) a[ i ] = supp[ p++ ];
+    else a[ i ] = supp[ q++ ];
+   }
+  }
+ }
+ /** Sorts the specified range of elements according to the natural ascending order using a parallel mergesort.
+	 *
+	 * <p>This method behaves as {@link #mergeSort(long[], int, int)}, but sorts the two halves of each range longer than
+	 * {@link Arrays#PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if any, or a new one
+	 * with a thread per processor. The sort is stable, the merges are sequential, and an array as large as <code>a</code> will
+	 * be allocated by this method.
+	 *
+	 * @param a the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 */
+ public static void parallelMergeSort( final long a[], final int from, final int to ) {
+  if ( to - from < Arrays.PARALLEL_SORT_NO_FORK ) mergeSort( a, from, to );
+  else Arrays.invokeSortTask( new MergeSortTask( a, a.clone(), from, to ) );
+ }
+ /** Sorts an array according to the natural ascending order using a parallel mergesort.
+	 *
+	 * @param a the array to be sorted.
+	 * @see #parallelMergeSort(long[], int, int)
+	 */
+ public static void parallelMergeSort( final long a[] ) {
+  parallelMergeSort( a, 0, a.length );
+ }
+ /** A parallel mergesort with a comparator; see {@link MergeSortTask}. */
+ private static final class MergeSortComparatorTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final long[] a;
+  private final long[] supp;
+  private final int from;
+  private final int to;
+  private final LongComparator comp;
+  public MergeSortComparatorTask( final long[] a, final long[] supp, final int from, final int to, final LongComparator comp ) {
+   this.a = a;
+   this.supp = supp;
+   this.from = from;
+   this.to = to;
+   this.comp = comp;
+  }
+  @Override
+  protected void compute() {
+   final long[] a = this.a, supp = this.supp;
+   final int len = to - from;
+   if ( len < Arrays.PARALLEL_SORT_NO_FORK ) {
+    mergeSort( a, from, to, comp, supp );
+    return;
+   }
+   // Sort halves of a into supp in parallel
+   final int mid = ( from + to ) >>> 1;
+   invokeAll( new MergeSortComparatorTask( supp, a, from, mid, comp ), new MergeSortComparatorTask( supp, a, mid, to, comp ) );
+   // If list is already sorted, just copy from supp to a
+   if ( comp.compare( supp[ mid - 1 ], supp[ mid ] ) <= 0 ) {
+    System.arraycopy( supp, from, a, from, len );
+    return;
+   }
+   // Merge sorted halves (now in supp) into a
+   for( int i = from, p = from, q = mid; i < to; i++ ) {
+    if ( q >= to || p < mid && comp.compare( supp[ p ], supp[ q ] ) <= 0 ) a[ i ] = supp[ p++ ];
+    else a[ i ] = supp[ q++ ];
+   }
+  }
+ }
+ /** Sorts the specified range of elements according to the order induced by the specified
+	 * comparator using a parallel mergesort.
+	 *
+	 * <p>This method behaves as {@link #mergeSort(long[], int, int, LongComparator)}, but sorts the two halves of each range longer
+	 * than {@link Arrays#PARALLEL_SORT_NO_FORK} in parallel, using the fork/join pool of the current thread, if any, or a new
+	 * one with a thread per processor. The sort is stable, the merges are sequential, the comparator will be called
+	 * concurrently, and an array as large as <code>a</code> will be allocated by this method.
+	 *
+	 * @param a the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 * @param comp the comparator to determine the sorting order.
+	 */
+ public static void parallelMergeSort( final long a[], final int from, final int to, final LongComparator comp ) {
+  if ( to - from < Arrays.PARALLEL_SORT_NO_FORK ) mergeSort( a, from, to, comp );
+  else Arrays.invokeSortTask( new MergeSortComparatorTask( a, a.clone(), from, to, comp ) );
+ }
+ /** Sorts an array according to the order induced by the specified comparator using a parallel mergesort.
+	 *
+	 * @param a the array to be sorted.
+	 * @param comp the comparator to determine the sorting order.
+	 * @see #parallelMergeSort(long[], int, int, LongComparator)
+	 */
+ public static void parallelMergeSort( final long a[], final LongComparator comp ) {
+  parallelMergeSort( a, 0, a.length, comp );
+ }
  /**
 	 * Searches a range of the specified array for the specified value using 
 	 * the binary search algorithm. The range must be sorted prior to making this call. 
@@ -793,6 +1078,10 @@ public class LongArrays {
 	 * @param to the index of the last element (exclusive) to be sorted.
 	 */
  public static void radixSort( final long[] a, final int from, final int to ) {
+  radixSort( a, from, to, 0 );
+ }
+ /** Sorts a range whose elements agree on the digits before <code>firstLevel</code>. */
+ private static void radixSort( final long[] a, final int from, final int to, final int firstLevel ) {
   final int maxLevel = DIGITS_PER_ELEMENT - 1;
   final int stackSize = ( ( 1 << DIGIT_BITS ) - 1 ) * ( DIGITS_PER_ELEMENT - 1 ) + 1;
   final int[] offsetStack = new int[ stackSize ];
@@ -803,7 +1092,7 @@ public class LongArrays {
   int levelPos = 0;
   offsetStack[ offsetPos++ ] = from;
   lengthStack[ lengthPos++ ] = to - from;
-  levelStack[ levelPos++ ] = 0;
+  levelStack[ levelPos++ ] = firstLevel;
   final int[] count = new int[ 1 << DIGIT_BITS ];
   final int[] pos = new int[ 1 << DIGIT_BITS ];
   final byte[] digit = new byte[ to - from ];
@@ -921,6 +1210,10 @@ public class LongArrays {
 	 * @param stable whether the sorting algorithm should be stable.
 	 */
  public static void radixSortIndirect( final int[] perm, final long[] a, final int from, final int to, final boolean stable ) {
+  radixSortIndirect( perm, a, from, to, stable, 0 );
+ }
+ /** Sorts a range of <code>perm</code> whose elements agree on the digits before <code>firstLevel</code>. */
+ private static void radixSortIndirect( final int[] perm, final long[] a, final int from, final int to, final boolean stable, final int firstLevel ) {
   final int maxLevel = DIGITS_PER_ELEMENT - 1;
   final int stackSize = ( ( 1 << DIGIT_BITS ) - 1 ) * ( DIGITS_PER_ELEMENT - 1 ) + 1;
   final int[] offsetStack = new int[ stackSize ];
@@ -931,10 +1224,10 @@ public class LongArrays {
   int levelPos = 0;
   offsetStack[ offsetPos++ ] = from;
   lengthStack[ lengthPos++ ] = to - from;
-  levelStack[ levelPos++ ] = 0;
+  levelStack[ levelPos++ ] = firstLevel;
   final int[] count = new int[ 1 << DIGIT_BITS ];
   final int[] pos = stable ? null : new int[ 1 << DIGIT_BITS ];
-  final int[] support = stable ? new int[ perm.length ] : null;
+  final int[] support = stable ? new int[ to - from ] : null;
   final byte[] digit = new byte[ to - from ];
   while( offsetPos > 0 ) {
    final int first = offsetStack[ --offsetPos ];
@@ -1049,8 +1342,12 @@ public class LongArrays {
 	 * @param to the index of the last element (exclusive) to be sorted.
 	 */
  public static void radixSort( final long[] a, final long[] b, final int from, final int to ) {
-  final int layers = 2;
   if ( a.length != b.length ) throw new IllegalArgumentException( "Array size mismatch." );
+  radixSort( a, b, from, to, 0 );
+ }
+ /** Sorts a range of pairs that agree on the digits before <code>firstLevel</code>. */
+ private static void radixSort( final long[] a, final long[] b, final int from, final int to, final int firstLevel ) {
+  final int layers = 2;
   final int maxLevel = DIGITS_PER_ELEMENT * layers - 1;
   final int stackSize = ( ( 1 << DIGIT_BITS ) - 1 ) * ( layers * DIGITS_PER_ELEMENT - 1 ) + 1;
   final int[] offsetStack = new int[ stackSize ];
@@ -1061,7 +1358,7 @@ public class LongArrays {
   int levelPos = 0;
   offsetStack[ offsetPos++ ] = from;
   lengthStack[ lengthPos++ ] = to - from;
-  levelStack[ levelPos++ ] = 0;
+  levelStack[ levelPos++ ] = firstLevel;
   final int[] count = new int[ 1 << DIGIT_BITS ];
   final int[] pos = new int[ 1 << DIGIT_BITS ];
   final byte[] digit = new byte[ to - from ];
@@ -1257,6 +1554,345 @@ public class LongArrays {
    }
   }
  }
+ /** The number of elements under which the parallel radix sorts hand a range to the sequential ones. */
+ private static final int PARALLEL_RADIXSORT_NO_FORK = 1 << 16;
+ /** Returns the number of chunks the histogram and distribution passes of a range are split into. */
+ private static int sortChunks( final int length ) {
+  return Math.max( 1, Math.min( length / PARALLEL_RADIXSORT_NO_FORK, 4 * ForkJoinTask.getPool().getParallelism() ) );
+ }
+ /** Turns per-chunk digit counts into the positions each chunk writes its keys to, digit by digit and then
+	 * chunk by chunk, so that keys with the same digit keep their order; stores the start of each bucket in
+	 * <code>bucket</code>, which has one more element than there are digits. */
+ private static void sortOffsets( final int[][] count, final int[] bucket ) {
+  int p = 0;
+  for( int d = 0; d < 1 << DIGIT_BITS; d++ ) {
+   bucket[ d ] = p;
+   for( int c = 0; c < count.length; c++ ) {
+    final int t = count[ c ][ d ];
+    count[ c ][ d ] = p;
+    p += t;
+   }
+  }
+  bucket[ 1 << DIGIT_BITS ] = p;
+ }
+ /** One level of a parallel radix sort of a range of a single array; see {@link #parallelRadixSort(long[], int, int)}. */
+ private static final class RadixSortTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final long[] a;
+  private final long[] support;
+  private final int base;
+  private final int from;
+  private final int to;
+  private final int level;
+  public RadixSortTask( final long[] a, final long[] support, final int base, final int from, final int to, final int level ) {
+   this.a = a;
+   this.support = support;
+   this.base = base;
+   this.from = from;
+   this.to = to;
+   this.level = level;
+  }
+  protected void compute() {
+   final int length = to - from;
+   if ( length < PARALLEL_RADIXSORT_NO_FORK ) {
+    radixSort( a, from, to, level );
+    return;
+   }
+   final int signMask = level % DIGITS_PER_ELEMENT == 0 ? 1 << DIGIT_BITS - 1 : 0;
+   final int shift = ( DIGITS_PER_ELEMENT - 1 - level % DIGITS_PER_ELEMENT ) * DIGIT_BITS;
+   final int chunks = sortChunks( length );
+   final int[][] count = new int[ chunks ][ 1 << DIGIT_BITS ];
+   final RecursiveAction[] pass = new RecursiveAction[ chunks ];
+   // Count keys, a chunk per task.
+   for( int c = 0; c < chunks; c++ ) {
+    final int[] chunkCount = count[ c ];
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      for( int i = start; i < end; i++ ) chunkCount[ (int)( ( a[ i ] >>> shift ) & DIGIT_MASK ^ signMask ) ]++;
+     }
+    };
+   }
+   invokeAll( pass );
+   final int[] bucket = new int[ ( 1 << DIGIT_BITS ) + 1 ];
+   sortOffsets( count, bucket );
+   // Distribute keys into the support array, and copy them back once all chunks are done.
+   for( int c = 0; c < chunks; c++ ) {
+    final int[] chunkPos = count[ c ];
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      for( int i = start; i < end; i++ ) support[ from - base + chunkPos[ (int)( ( a[ i ] >>> shift ) & DIGIT_MASK ^ signMask ) ]++ ] = a[ i ];
+     }
+    };
+   }
+   invokeAll( pass );
+   for( int c = 0; c < chunks; c++ ) {
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      System.arraycopy( support, start - base, a, start, end - start );
+     }
+    };
+   }
+   invokeAll( pass );
+   // Sort each non-singleton bucket as a task of its own.
+   if ( level == DIGITS_PER_ELEMENT - 1 ) return;
+   final java.util.List<RadixSortTask> buckets = new java.util.ArrayList<RadixSortTask>();
+   for( int d = 0; d < 1 << DIGIT_BITS; d++ )
+    if ( bucket[ d + 1 ] - bucket[ d ] > 1 ) buckets.add( new RadixSortTask( a, support, base, from + bucket[ d ], from + bucket[ d + 1 ], level + 1 ) );
+   invokeAll( buckets );
+  }
+ }
+ /** Sorts the specified array using a parallel radix sort.
+	 *
+	 * <p>The array is partitioned on its most significant digit as in {@link #radixSort(long[])}, but the
+	 * digits are counted and the keys distributed by several fork/join tasks, each on a chunk of the array,
+	 * and the resulting buckets are then sorted by tasks of their own. Buckets smaller than 65536 elements are
+	 * sorted by the sequential algorithm, starting from the digit they are partitioned on.
+	 *
+	 * <p>The tasks run in the current fork/join pool, if this method is called from one, and otherwise in a new
+	 * pool with a thread per processor. This method allocates a support array of longs as large as the range to
+	 * be sorted.
+	 *
+	 * @param a the array to be sorted.
+	 */
+ public static void parallelRadixSort( final long[] a ) {
+  parallelRadixSort( a, 0, a.length );
+ }
+ /** Sorts the specified range of an array using a parallel radix sort, as {@link #parallelRadixSort(long[])}.
+	 *
+	 * @param a the array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 */
+ public static void parallelRadixSort( final long[] a, final int from, final int to ) {
+  if ( to - from < PARALLEL_RADIXSORT_NO_FORK ) {
+   radixSort( a, from, to );
+   return;
+  }
+  Arrays.invokeSortTask( new RadixSortTask( a, new long[ to - from ], from, from, to, 0 ) );
+ }
+ /** One level of a parallel indirect radix sort; see {@link #parallelRadixSortIndirect(int[], long[], int, int, boolean)}. */
+ private static final class RadixSortIndirectTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final int[] perm;
+  private final long[] a;
+  private final int[] support;
+  private final int base;
+  private final int from;
+  private final int to;
+  private final int level;
+  private final boolean stable;
+  public RadixSortIndirectTask( final int[] perm, final long[] a, final int[] support, final int base, final int from, final int to, final int level, final boolean stable ) {
+   this.perm = perm;
+   this.a = a;
+   this.support = support;
+   this.base = base;
+   this.from = from;
+   this.to = to;
+   this.level = level;
+   this.stable = stable;
+  }
+  protected void compute() {
+   final int length = to - from;
+   if ( length < PARALLEL_RADIXSORT_NO_FORK ) {
+    radixSortIndirect( perm, a, from, to, stable, level );
+    return;
+   }
+   final int signMask = level % DIGITS_PER_ELEMENT == 0 ? 1 << DIGIT_BITS - 1 : 0;
+   final int shift = ( DIGITS_PER_ELEMENT - 1 - level % DIGITS_PER_ELEMENT ) * DIGIT_BITS;
+   final int chunks = sortChunks( length );
+   final int[][] count = new int[ chunks ][ 1 << DIGIT_BITS ];
+   final RecursiveAction[] pass = new RecursiveAction[ chunks ];
+   // Count keys, a chunk per task.
+   for( int c = 0; c < chunks; c++ ) {
+    final int[] chunkCount = count[ c ];
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      for( int i = start; i < end; i++ ) chunkCount[ (int)( ( a[ perm[ i ] ] >>> shift ) & DIGIT_MASK ^ signMask ) ]++;
+     }
+    };
+   }
+   invokeAll( pass );
+   final int[] bucket = new int[ ( 1 << DIGIT_BITS ) + 1 ];
+   sortOffsets( count, bucket );
+   // Distribute indices into the support array, keeping their order within each digit, and copy them back.
+   for( int c = 0; c < chunks; c++ ) {
+    final int[] chunkPos = count[ c ];
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      for( int i = start; i < end; i++ ) support[ from - base + chunkPos[ (int)( ( a[ perm[ i ] ] >>> shift ) & DIGIT_MASK ^ signMask ) ]++ ] = perm[ i ];
+     }
+    };
+   }
+   invokeAll( pass );
+   for( int c = 0; c < chunks; c++ ) {
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      System.arraycopy( support, start - base, perm, start, end - start );
+     }
+    };
+   }
+   invokeAll( pass );
+   // Sort each non-singleton bucket as a task of its own.
+   if ( level == DIGITS_PER_ELEMENT - 1 ) return;
+   final java.util.List<RadixSortIndirectTask> buckets = new java.util.ArrayList<RadixSortIndirectTask>();
+   for( int d = 0; d < 1 << DIGIT_BITS; d++ )
+    if ( bucket[ d + 1 ] - bucket[ d ] > 1 ) buckets.add( new RadixSortIndirectTask( perm, a, support, base, from + bucket[ d ], from + bucket[ d + 1 ], level + 1, stable ) );
+   invokeAll( buckets );
+  }
+ }
+ /** Sorts the specified array using a parallel indirect radix sort.
+	 *
+	 * <p>This method implement an <em>indirect</em> sort, as {@link #radixSortIndirect(int[], long[], boolean)}, with
+	 * the tasks of {@link #parallelRadixSort(long[])}. The digits are distributed by chunks in their order, so they
+	 * never reorder equal keys; if <code>stable</code> is true the buckets handed to the sequential algorithm are
+	 * sorted stably too, and so is the whole permutation.
+	 *
+	 * <p>This method allocates a support array of integers as large as the range of <code>perm</code> to be sorted.
+	 *
+	 * @param perm a permutation array indexing <code>a</code>.
+	 * @param a the array to be sorted.
+	 * @param stable whether the sorting algorithm should be stable.
+	 */
+ public static void parallelRadixSortIndirect( final int[] perm, final long[] a, final boolean stable ) {
+  parallelRadixSortIndirect( perm, a, 0, perm.length, stable );
+ }
+ /** Sorts the specified range of a permutation using a parallel indirect radix sort, as
+	 * {@link #parallelRadixSortIndirect(int[], long[], boolean)}.
+	 *
+	 * @param perm a permutation array indexing <code>a</code>.
+	 * @param a the array to be sorted.
+	 * @param from the index of the first element of <code>perm</code> (inclusive) to be permuted.
+	 * @param to the index of the last element of <code>perm</code> (exclusive) to be permuted.
+	 * @param stable whether the sorting algorithm should be stable.
+	 */
+ public static void parallelRadixSortIndirect( final int[] perm, final long[] a, final int from, final int to, final boolean stable ) {
+  if ( to - from < PARALLEL_RADIXSORT_NO_FORK ) {
+   radixSortIndirect( perm, a, from, to, stable );
+   return;
+  }
+  Arrays.invokeSortTask( new RadixSortIndirectTask( perm, a, new int[ to - from ], from, from, to, 0, stable ) );
+ }
+ /** One level of a parallel radix sort of pairs; see {@link #parallelRadixSort(long[], long[], int, int)}. */
+ private static final class RadixSort2Task extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  private final long[] a;
+  private final long[] b;
+  private final long[] supportA;
+  private final long[] supportB;
+  private final int base;
+  private final int from;
+  private final int to;
+  private final int level;
+  public RadixSort2Task( final long[] a, final long[] b, final long[] supportA, final long[] supportB, final int base, final int from, final int to, final int level ) {
+   this.a = a;
+   this.b = b;
+   this.supportA = supportA;
+   this.supportB = supportB;
+   this.base = base;
+   this.from = from;
+   this.to = to;
+   this.level = level;
+  }
+  protected void compute() {
+   final int length = to - from;
+   if ( length < PARALLEL_RADIXSORT_NO_FORK ) {
+    radixSort( a, b, from, to, level );
+    return;
+   }
+   final long[] k = level < DIGITS_PER_ELEMENT ? a : b; // This is the key array
+   final int signMask = level % DIGITS_PER_ELEMENT == 0 ? 1 << DIGIT_BITS - 1 : 0;
+   final int shift = ( DIGITS_PER_ELEMENT - 1 - level % DIGITS_PER_ELEMENT ) * DIGIT_BITS;
+   final int chunks = sortChunks( length );
+   final int[][] count = new int[ chunks ][ 1 << DIGIT_BITS ];
+   final RecursiveAction[] pass = new RecursiveAction[ chunks ];
+   // Count keys, a chunk per task.
+   for( int c = 0; c < chunks; c++ ) {
+    final int[] chunkCount = count[ c ];
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      for( int i = start; i < end; i++ ) chunkCount[ (int)( ( k[ i ] >>> shift ) & DIGIT_MASK ^ signMask ) ]++;
+     }
+    };
+   }
+   invokeAll( pass );
+   final int[] bucket = new int[ ( 1 << DIGIT_BITS ) + 1 ];
+   sortOffsets( count, bucket );
+   // Distribute pairs into the support arrays, and copy them back once all chunks are done.
+   for( int c = 0; c < chunks; c++ ) {
+    final int[] chunkPos = count[ c ];
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      for( int i = start; i < end; i++ ) {
+       final int d = from - base + chunkPos[ (int)( ( k[ i ] >>> shift ) & DIGIT_MASK ^ signMask ) ]++;
+       supportA[ d ] = a[ i ];
+       supportB[ d ] = b[ i ];
+      }
+     }
+    };
+   }
+   invokeAll( pass );
+   for( int c = 0; c < chunks; c++ ) {
+    final int start = from + (int)( (long)length * c / chunks ), end = from + (int)( (long)length * ( c + 1 ) / chunks );
+    pass[ c ] = new RecursiveAction() {
+     private static final long serialVersionUID = 1L;
+     protected void compute() {
+      System.arraycopy( supportA, start - base, a, start, end - start );
+      System.arraycopy( supportB, start - base, b, start, end - start );
+     }
+    };
+   }
+   invokeAll( pass );
+   // Sort each non-singleton bucket as a task of its own.
+   if ( level == 2 * DIGITS_PER_ELEMENT - 1 ) return;
+   final java.util.List<RadixSort2Task> buckets = new java.util.ArrayList<RadixSort2Task>();
+   for( int d = 0; d < 1 << DIGIT_BITS; d++ )
+    if ( bucket[ d + 1 ] - bucket[ d ] > 1 ) buckets.add( new RadixSort2Task( a, b, supportA, supportB, base, from + bucket[ d ], from + bucket[ d + 1 ], level + 1 ) );
+   invokeAll( buckets );
+  }
+ }
+ /** Sorts the specified pair of arrays lexicographically using a parallel radix sort.
+	 *
+	 * <p>This method sorts pairs as {@link #radixSort(long[], long[])} does, with the tasks of
+	 * {@link #parallelRadixSort(long[])}. It allocates two support arrays of longs as large as the range to be sorted.
+	 *
+	 * @param a the first array to be sorted.
+	 * @param b the second array to be sorted.
+	 */
+ public static void parallelRadixSort( final long[] a, final long[] b ) {
+  parallelRadixSort( a, b, 0, a.length );
+ }
+ /** Sorts the specified range of a pair of arrays lexicographically using a parallel radix sort, as
+	 * {@link #parallelRadixSort(long[], long[])}.
+	 *
+	 * @param a the first array to be sorted.
+	 * @param b the second array to be sorted.
+	 * @param from the index of the first element (inclusive) to be sorted.
+	 * @param to the index of the last element (exclusive) to be sorted.
+	 */
+ public static void parallelRadixSort( final long[] a, final long[] b, final int from, final int to ) {
+  if ( a.length != b.length ) throw new IllegalArgumentException( "Array size mismatch." );
+  if ( to - from < PARALLEL_RADIXSORT_NO_FORK ) {
+   radixSort( a, b, from, to, 0 );
+   return;
+  }
+  Arrays.invokeSortTask( new RadixSort2Task( a, b, new long[ to - from ], new long[ to - from ], from, from, to, 0 ) );
+ }
  private static void selectionSort( final long[][] a, final int from, final int to, final int level ) {
   final int layers = a.length;
   final int firstLayer = level / DIGITS_PER_ELEMENT;
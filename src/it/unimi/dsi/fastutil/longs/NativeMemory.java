@@ -0,0 +1,55 @@
+package it.unimi.dsi.fastutil.longs;
+
+import java.lang.reflect.Field;
+
+import sun.misc.Unsafe;
+
+/** The native memory operations of {@link Long2LongOffHeapHashMap}.
+ *
+ * <P>This is the only class of the tree that uses <code>sun.misc.Unsafe</code>; the build compiles it
+ * on its own, with the warnings about proprietary APIs turned off.
+ */
+final class NativeMemory {
+	private static final Unsafe UNSAFE;
+	static {
+		try {
+			final Field f = Unsafe.class.getDeclaredField( "theUnsafe" );
+			f.setAccessible( true );
+			UNSAFE = (Unsafe)f.get( null );
+		}
+		catch( Exception e ) {
+			throw new ExceptionInInitializerError( e );
+		}
+	}
+
+	private NativeMemory() {}
+
+	/** Allocates a block of zeroed native memory.
+	 *
+	 * @param bytes the size of the block.
+	 * @return the address of the block.
+	 */
+	static long allocate( final long bytes ) {
+		final long address = UNSAFE.allocateMemory( bytes );
+		UNSAFE.setMemory( address, bytes, (byte)0 );
+		return address;
+	}
+
+	/** Zeroes a block of native memory. */
+	static void zero( final long address, final long bytes ) {
+		UNSAFE.setMemory( address, bytes, (byte)0 );
+	}
+
+	/** Frees a block of native memory returned by {@link #allocate(long)}. */
+	static void free( final long address ) {
+		UNSAFE.freeMemory( address );
+	}
+
+	static long getLong( final long address ) {
+		return UNSAFE.getLong( address );
+	}
+
+	static void putLong( final long address, final long v ) {
+		UNSAFE.putLong( address, v );
+	}
+}
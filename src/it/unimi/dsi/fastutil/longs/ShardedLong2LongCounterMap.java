@@ -0,0 +1,220 @@
+package it.unimi.dsi.fastutil.longs;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectIterators;
+
+/** A hash map from longs to counters, cut into 2<sup><var>s</var></sup> shards that threads update under a lock per shard.
+ *
+ * <P>Every shard is a {@link Long2LongOpenHashMap}. A key belongs to the shard given by the top
+ * <var>s</var> bits of its {@link HashCommon#murmurHash3(long)}, while the shard places it by the
+ * low bits, so the keys of a shard still spread over its whole table. A writer locks the shard of
+ * its key only: threads adding keys of different shards never wait for each other, and each shard
+ * grows on its own, so, unlike {@link ConcurrentLong2LongCounterMap}, the map needs no capacity up front.
+ *
+ * <P>Taking a lock costs more than adding to a counter, so threads that add many keys should
+ * go through a {@link Writer} of their own, which buffers keys per shard and adds a whole buffer
+ * under one lock. Alternatively, a shard can be {@linkplain #shard(int) handed} to a single thread,
+ * which may then update it without locking as long as nobody else does.
+ *
+ * <P>{@link #snapshot()} copies the shards one at a time, each under its lock. The iterators,
+ * like {@link #size()}, see a consistent state only once all writers are done; the iterators
+ * of distinct shards can be used by distinct threads at the same time.
+ *
+ * @see ConcurrentLong2LongCounterMap
+ */
+public class ShardedLong2LongCounterMap {
+	/** The shards, each used as its own lock. */
+	protected final Long2LongOpenHashMap[] shard;
+	/** The number of bits of the hash that select a shard. */
+	protected final int shardBits;
+
+	/** Creates a new map.
+	 *
+	 * @param shardBits the base-two logarithm of the number of shards, between 0 and 16.
+	 * @param expected the expected number of keys of each shard.
+	 */
+	public ShardedLong2LongCounterMap( final int shardBits, final int expected ) {
+		if ( shardBits < 0 || shardBits > 16 ) throw new IllegalArgumentException( "The number of shard bits (" + shardBits + ") must be between 0 and 16" );
+		this.shardBits = shardBits;
+		shard = new Long2LongOpenHashMap[ 1 << shardBits ];
+		for( int i = shard.length; i-- != 0; ) shard[ i ] = new Long2LongOpenHashMap( expected );
+	}
+
+	/** Creates a new map whose shards have the default initial size.
+	 *
+	 * @param shardBits the base-two logarithm of the number of shards, between 0 and 16.
+	 */
+	public ShardedLong2LongCounterMap( final int shardBits ) {
+		this( shardBits, Hash.DEFAULT_INITIAL_SIZE );
+	}
+
+	/** Returns the number of shards. */
+	public int shards() {
+		return shard.length;
+	}
+
+	/** Returns the shard of a key.
+	 *
+	 * @param k a key.
+	 * @return the index of the shard <code>k</code> belongs to.
+	 */
+	public int shardOf( final long k ) {
+		return shardBits == 0 ? 0 : (int)( HashCommon.murmurHash3( k ) >>> ( Long.SIZE - shardBits ) );
+	}
+
+	/** Returns a shard. Its keys are exactly the keys of this map for which {@link #shardOf(long)}
+	 * returns <code>i</code>; a thread that updates it directly must either hold its lock or be its only user.
+	 *
+	 * @param i the index of a shard.
+	 * @return the shard.
+	 */
+	public Long2LongOpenHashMap shard( final int i ) {
+		return shard[ i ];
+	}
+
+	/** Adds an increment to the counter of a key, creating it if needed.
+	 *
+	 * @param k the key.
+	 * @param incr the increment.
+	 * @return the previous value of the counter, or zero if the key was absent.
+	 */
+	public long add( final long k, final long incr ) {
+		final Long2LongOpenHashMap h = shard[ shardOf( k ) ];
+		synchronized( h ) {
+			return h.add( k, incr );
+		}
+	}
+
+	/** Returns the counter of a key, or zero if the key is absent. */
+	public long get( final long k ) {
+		final Long2LongOpenHashMap h = shard[ shardOf( k ) ];
+		synchronized( h ) {
+			return h.get( k );
+		}
+	}
+
+	/** Returns whether a key is in the map. */
+	public boolean containsKey( final long k ) {
+		final Long2LongOpenHashMap h = shard[ shardOf( k ) ];
+		synchronized( h ) {
+			return h.containsKey( k );
+		}
+	}
+
+	/** Returns the number of keys. */
+	public int size() {
+		int size = 0;
+		for( Long2LongOpenHashMap h : shard ) size += h.size();
+		return size;
+	}
+
+	/** Returns whether the map has no keys. */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/** Removes all keys, locking one shard at a time. */
+	public void clear() {
+		for( Long2LongOpenHashMap h : shard ) {
+			synchronized( h ) {
+				h.clear();
+			}
+		}
+	}
+
+	/** Returns a copy of every shard, each taken under the lock of the shard.
+	 *
+	 * <P>Every copy is consistent, but writers may run between the copies of two shards.
+	 *
+	 * @return an array of copies of the shards, indexed as the shards.
+	 */
+	public Long2LongOpenHashMap[] snapshot() {
+		final Long2LongOpenHashMap[] copy = new Long2LongOpenHashMap[ shard.length ];
+		for( int i = shard.length; i-- != 0; ) {
+			synchronized( shard[ i ] ) {
+				copy[ i ] = shard[ i ].clone();
+			}
+		}
+		return copy;
+	}
+
+	/** Returns an iterator over the entries of a shard that returns always the same mutable entry.
+	 *
+	 * @param i the index of a shard.
+	 * @return a fast iterator over the entries of the shard.
+	 */
+	public ObjectIterator<Long2LongMap.Entry> fastIterator( final int i ) {
+		return shard[ i ].long2LongEntrySet().fastIterator();
+	}
+
+	/** Returns an iterator over the entries of all shards, one shard after the other, that returns always
+	 * the same mutable entry within a shard.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public ObjectIterator<Long2LongMap.Entry> fastIterator() {
+		final ObjectIterator<Long2LongMap.Entry>[] i = new ObjectIterator[ shard.length ];
+		for( int s = shard.length; s-- != 0; ) i[ s ] = fastIterator( s );
+		return ObjectIterators.concat( i );
+	}
+
+	/** Returns a new writer that buffers up to <code>bufferSize</code> keys per shard.
+	 *
+	 * <P>A writer takes 16&nbsp;&times;&nbsp;<code>bufferSize</code> bytes per shard, so the buffer
+	 * should shrink as the number of shards grows.
+	 *
+	 * @param bufferSize the number of keys buffered for a shard before they are added.
+	 * @return a new writer, to be used by a single thread.
+	 */
+	public Writer writer( final int bufferSize ) {
+		return new Writer( bufferSize );
+	}
+
+	/** Adds keys to the map in batches, locking a shard once per batch. A writer is not thread-safe: every
+	 * thread should have its own, and call {@link #flush()} once done. */
+	public final class Writer {
+		private final long[][] key;
+		private final long[][] incr;
+		private final int[] count;
+
+		private Writer( final int bufferSize ) {
+			if ( bufferSize < 1 ) throw new IllegalArgumentException( "The buffer size (" + bufferSize + ") must be positive" );
+			key = new long[ shard.length ][ bufferSize ];
+			incr = new long[ shard.length ][ bufferSize ];
+			count = new int[ shard.length ];
+		}
+
+		/** Buffers an increment to the counter of a key, adding the buffer of its shard if it is full.
+		 *
+		 * @param k the key.
+		 * @param incr the increment.
+		 */
+		public void add( final long k, final long incr ) {
+			final int s = shardOf( k );
+			final int c = count[ s ];
+			key[ s ][ c ] = k;
+			this.incr[ s ][ c ] = incr;
+			if ( ( count[ s ] = c + 1 ) == key[ s ].length ) flush( s );
+		}
+
+		/** Adds the keys buffered for a shard.
+		 *
+		 * @param s the index of a shard.
+		 */
+		public void flush( final int s ) {
+			final long[] k = key[ s ];
+			final long[] v = incr[ s ];
+			final Long2LongOpenHashMap h = shard[ s ];
+			synchronized( h ) {
+				for( int i = count[ s ]; i-- != 0; ) h.add( k[ i ], v[ i ] );
+			}
+			count[ s ] = 0;
+		}
+
+		/** Adds all buffered keys. */
+		public void flush() {
+			for( int s = shard.length; s-- != 0; ) if ( count[ s ] != 0 ) flush( s );
+		}
+	}
+}
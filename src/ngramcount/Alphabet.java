@@ -0,0 +1,200 @@
+package ngramcount;
+
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * The symbol table that turns input bytes into the dense character codes
+ * packed into n-gram keys, through a 256-entry lookup table.
+ *
+ * <p>Code 0 is the separator: a run of bytes mapped to it becomes a single
+ * separator, as the mappers have always done with non-letters. The other
+ * codes are numbered from 1 in the order of the alphabet, and every character
+ * takes as few bits as the number of codes allows, so small alphabets give
+ * small keys and longer n-grams fit a long.
+ *
+ * <p>An alphabet is given by a name or by its groups of characters:
+ * <ul>
+ * <li><code>letters</code>: a-z, case folded, 27 codes in 5 bits. The default,
+ * and the codes of the 5-bit keys written before alphabets were configurable.
+ * <li><code>alnum</code>: letters, digits and common punctuation in 6 bits.
+ * <li><code>soundex</code>: letters folded into the 8 Soundex classes, 4 bits.
+ * <li>a comma-separated list of groups, such as <code>aeiouy,bcdfghjklmnpqrstvwxz</code>;
+ * the characters of a group share one code, letters are case folded.
+ * </ul>
+ *
+ * <p>In UTF-8 mode every multi-byte character gets one extra code, instead of
+ * each of its bytes becoming a separator: lead bytes map to it and
+ * continuation bytes are {@link #SKIP}ped. The table sees single bytes, so all
+ * non-ASCII characters share that code.
+ */
+public class Alphabet {
+
+	/** Configuration key holding the alphabet name or groups. */
+	public static final String CONF_ALPHABET = "ngramcount.alphabet";
+
+	/** Configuration key switching on UTF-8 mode. */
+	public static final String CONF_UTF8 = "ngramcount.alphabet.utf8";
+
+	public static final String LETTERS = "letters";
+	public static final String ALNUM = "alnum";
+	public static final String SOUNDEX = "soundex";
+
+	/** The code of the separator. */
+	public static final int SEPARATOR = 0;
+
+	/** The code of bytes that are neither characters nor separators. */
+	public static final int SKIP = -1;
+
+	/** The largest number of codes, so codes fit the byte table. */
+	public static final int MAX_SIZE = 128;
+
+	/** The highest order the 4-bit order tag of a long key can hold. */
+	private static final int MAX_TAGGED_ORDER = 15;
+
+	/** The alphabet of the 5-bit keys, used unless configured otherwise. */
+	public static final Alphabet DEFAULT = forName(LETTERS, false);
+
+	private final String name;
+	private final boolean utf8;
+	private final byte[] codes = new byte[256];
+	private final byte[] symbols;
+	private final int bitsPerChar;
+
+	private Alphabet(String name, String[] groups, boolean utf8) {
+		this.name = name;
+		this.utf8 = utf8;
+		int size = 1 + groups.length + (utf8 ? 1 : 0);
+		if (size > MAX_SIZE) {
+			throw new IllegalArgumentException("Alphabet " + name + " has more than " + MAX_SIZE + " codes");
+		}
+		symbols = new byte[size];
+		symbols[SEPARATOR] = ' ';
+		for (int c = 1; c <= groups.length; c++) {
+			String group = groups[c - 1];
+			if (group.isEmpty()) {
+				throw new IllegalArgumentException("Empty group in alphabet " + name);
+			}
+			symbols[c] = (byte) Character.toLowerCase(group.charAt(0));
+			for (int j = 0; j < group.length(); j++) {
+				char ch = group.charAt(j);
+				if (ch >= 0x80) {
+					throw new IllegalArgumentException("Alphabet " + name + " has non-ASCII character " + ch);
+				}
+				codes[Character.toLowerCase(ch)] = (byte) c;
+				codes[Character.toUpperCase(ch)] = (byte) c;
+			}
+		}
+		if (utf8) {
+			int c = size - 1;
+			symbols[c] = '_';
+			for (int b = 0x80; b < 0xC0; b++) {
+				codes[b] = SKIP;
+			}
+			// ~ 0xC0, 0xC1 and 0xF5 and up never start a valid sequence
+			for (int b = 0xC2; b < 0xF5; b++) {
+				codes[b] = (byte) c;
+			}
+		}
+		bitsPerChar = Math.max(1, 32 - Integer.numberOfLeadingZeros(size - 1));
+	}
+
+	/**
+	 * Returns the alphabet with the given name, or made of the given
+	 * comma-separated groups.
+	 */
+	public static Alphabet forName(String name, boolean utf8) {
+		String groups;
+		if (name.equals(LETTERS)) {
+			groups = "a,b,c,d,e,f,g,h,i,j,k,l,m,n,o,p,q,r,s,t,u,v,w,x,y,z";
+		} else if (name.equals(ALNUM)) {
+			groups = "a,b,c,d,e,f,g,h,i,j,k,l,m,n,o,p,q,r,s,t,u,v,w,x,y,z,0,1,2,3,4,5,6,7,8,9"
+					+ ",.,!,?,',\",-,:,;,(,),/,&,@,#,$,%";
+		} else if (name.equals(SOUNDEX)) {
+			groups = "aeiouy,hw,bfpv,cgjkqsxz,dt,l,mn,r";
+		} else if (name.indexOf(',') >= 0) {
+			groups = name;
+		} else {
+			throw new IllegalArgumentException("Unknown alphabet: " + name);
+		}
+		return new Alphabet(name, groups.split(","), utf8);
+	}
+
+	public static Alphabet get(Configuration conf) {
+		String name = conf.get(CONF_ALPHABET, LETTERS);
+		boolean utf8 = conf.getBoolean(CONF_UTF8, false);
+		if (name.equals(LETTERS) && !utf8) {
+			return DEFAULT;
+		}
+		return forName(name, utf8);
+	}
+
+	public static void set(Configuration conf, String name, boolean utf8) {
+		// ~ Fail here rather than in every task
+		forName(name, utf8);
+		conf.set(CONF_ALPHABET, name);
+		conf.setBoolean(CONF_UTF8, utf8);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isUTF8() {
+		return utf8;
+	}
+
+	/** Returns the number of codes, the separator included. */
+	public int size() {
+		return symbols.length;
+	}
+
+	public int bitsPerChar() {
+		return bitsPerChar;
+	}
+
+	/** Returns the code of a byte: {@link #SEPARATOR}, {@link #SKIP} or a character. */
+	public int code(byte b) {
+		return codes[b & 0xFF];
+	}
+
+	/**
+	 * Returns the lookup table itself, indexed by <code>b &amp; 0xFF</code>, for
+	 * inner loops. It must not be modified.
+	 */
+	public byte[] codes() {
+		return codes;
+	}
+
+	/** Largest order whose characters fit in an int. */
+	public int maxIntOrder() {
+		return 31 / bitsPerChar;
+	}
+
+	/** Largest order whose characters fit in a long next to the order tag. */
+	public int maxOrder() {
+		return Math.min(NGramWritable.ORDER_SHIFT / bitsPerChar, MAX_TAGGED_ORDER);
+	}
+
+	/** Largest order whose characters fit in 128 bits. */
+	public int max128Order() {
+		return 128 / bitsPerChar;
+	}
+
+	/**
+	 * Renders the lowest <code>length</code> packed characters of <code>k</code>
+	 * into <code>bytes</code>: the first character of the group of each code,
+	 * lower case, and a space for the separator.
+	 */
+	public void decode(long k, byte[] bytes, int offset, int length) {
+		long mask = (1L << bitsPerChar) - 1;
+		for (int j = offset + length - 1; j >= offset; j--) {
+			int c = (int) (k & mask);
+			bytes[j] = c < symbols.length ? symbols[c] : (byte) '?';
+			k >>>= bitsPerChar;
+		}
+	}
+
+	public String toString() {
+		return name + (utf8 ? " (UTF-8)" : "") + ", " + size() + " codes in " + bitsPerChar + " bits";
+	}
+}
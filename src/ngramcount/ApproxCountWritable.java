@@ -0,0 +1,54 @@
+package ngramcount;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Writable;
+
+/**
+ * An estimated count together with its maximum overestimation, as produced by
+ * {@link SpaceSaving}. The true count lies between <code>count - error</code>
+ * and <code>count</code> for a single summary.
+ */
+public class ApproxCountWritable implements Writable {
+
+	private long count;
+	private long error;
+
+	public ApproxCountWritable() {
+	}
+
+	public ApproxCountWritable(long count, long error) {
+		set(count, error);
+	}
+
+	public void set(long count, long error) {
+		this.count = count;
+		this.error = error;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getError() {
+		return error;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeLong(count);
+		out.writeLong(error);
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		count = in.readLong();
+		error = in.readLong();
+	}
+
+	public String toString() {
+		return count + "\t" + error;
+	}
+}
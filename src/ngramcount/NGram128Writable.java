@@ -0,0 +1,120 @@
+package ngramcount;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.WritableComparable;
+
+/**
+ * An n-gram too long for {@link NGramWritable} packed into 128 bits,
+ * {@link Alphabet#bitsPerChar()} bits per character. The low 64 bits hold the
+ * most recent characters; the order is kept in a separate byte. As with
+ * NGramWritable, the alphabet only matters to {@link #toString()}.
+ */
+public class NGram128Writable implements WritableComparable<NGram128Writable>, Configurable {
+
+	/** Largest order whose characters fit in 128 bits, with the default alphabet. */
+	public static final int MAX_ORDER = 128 / NGramWritable.BITS_PER_CHAR;
+
+	private Configuration conf;
+	private Alphabet alphabet = Alphabet.DEFAULT;
+
+	private long hi;
+	private long lo;
+	private int order;
+
+	public NGram128Writable() {
+	}
+
+	public NGram128Writable(long hi, long lo, int order) {
+		set(hi, lo, order);
+	}
+
+	public void set(long hi, long lo, int order) {
+		this.hi = hi;
+		this.lo = lo;
+		this.order = order;
+	}
+
+	public long getHi() {
+		return hi;
+	}
+
+	public long getLo() {
+		return lo;
+	}
+
+	public int getOrder() {
+		return order;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeByte(order);
+		out.writeLong(hi);
+		out.writeLong(lo);
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		order = in.readByte();
+		hi = in.readLong();
+		lo = in.readLong();
+	}
+
+	@Override
+	public int compareTo(NGram128Writable o) {
+		if (order != o.order) {
+			return order < o.order ? -1 : 1;
+		}
+		if (hi != o.hi) {
+			return hi < o.hi ? -1 : 1;
+		}
+		if (lo != o.lo) {
+			return lo + Long.MIN_VALUE < o.lo + Long.MIN_VALUE ? -1 : 1;
+		}
+		return 0;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof NGram128Writable)) {
+			return false;
+		}
+		NGram128Writable other = (NGram128Writable) o;
+		return hi == other.hi && lo == other.lo && order == other.order;
+	}
+
+	@Override
+	public int hashCode() {
+		long h = hi * 0x9e3779b97f4a7c15L + lo;
+		return (int) (h ^ (h >>> 32)) + order;
+	}
+
+	@Override
+	public void setConf(Configuration conf) {
+		this.conf = conf;
+		alphabet = Alphabet.get(conf);
+	}
+
+	@Override
+	public Configuration getConf() {
+		return conf;
+	}
+
+	public String toString() {
+		int bits = alphabet.bitsPerChar();
+		byte[] bytes = new byte[order];
+		long h = hi;
+		long l = lo;
+		for (int j = order - 1; j >= 0; j--) {
+			alphabet.decode(l, bytes, j, 1);
+			l = (l >>> bits) | (h << (64 - bits));
+			h >>>= bits;
+		}
+		return new String(bytes);
+	}
+}
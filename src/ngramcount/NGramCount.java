@@ -10,7 +10,7 @@ import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.compress.GzipCodec;
 import org.apache.hadoop.mapreduce.Job;
-import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.TextInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
@@ -23,6 +23,7 @@ import org.apache.log4j.Logger;
 
 import charCount.ByteMapper;
 import charCount.CharMapper;
+import charCount.InputDiscovery;
 import charCount.SimpleInputFilter;
 
 
@@ -36,7 +37,30 @@ public class NGramCount extends Configured implements Tool {
 
 	static final Logger LOG = Logger.getLogger(NGramCount.class);
 	
-	public static final int N = 8;
+	/** Configuration key holding the order of the n-grams to count. */
+	public static final String CONF_ORDER = "ngramcount.order";
+	public static final int DEFAULT_ORDER = 8;
+
+	/**
+	 * Configuration key holding the lowest order counted in the same pass. When
+	 * set, every order from it up to {@link #CONF_ORDER} is emitted by
+	 * {@link NGramCountMapperMultiOrder}.
+	 */
+	public static final String CONF_MIN_ORDER = "ngramcount.min.order";
+
+	/**
+	 * Configuration key holding the number of distinct keys a mapper aggregates
+	 * in memory before spilling a sorted run to local disk.
+	 */
+	public static final String CONF_SPILL_SIZE = "ngramcount.spill.size";
+	public static final int DEFAULT_SPILL_SIZE = 1 << 23;
+
+	/**
+	 * Configuration key holding the number of counters each mapper keeps when
+	 * only the heavy hitters are estimated, with {@link NGramCountMapperSpaceSaving}.
+	 */
+	public static final String CONF_HEAVY_HITTERS = "ngramcount.heavyhitters";
+	public static final int DEFAULT_HEAVY_HITTERS = 1 << 22;
 	
 	private static final String ARGNAME_INPATH = "-in";
 	private static final String ARGNAME_OUTPATH = "-out";
@@ -44,6 +68,14 @@ public class NGramCount extends Configured implements Tool {
 	private static final String ARGNAME_OVERWRITE = "-overwrite";
 	private static final String ARGNAME_MAXFILES = "-maxfiles";
 	private static final String ARGNAME_NUMREDUCE = "-numreducers";
+	private static final String ARGNAME_ORDER = "-order";
+	private static final String ARGNAME_MAPPER = "-mapper";
+	private static final String ARGNAME_MINORDER = "-minorder";
+	private static final String ARGNAME_HEAVYHITTERS = "-heavyhitters";
+	private static final String ARGNAME_BINARY = "-binary";
+	private static final String ARGNAME_TOTALORDER = "-totalorder";
+	private static final String ARGNAME_ALPHABET = "-alphabet";
+	private static final String ARGNAME_UTF8 = "-utf8";
 	private static final String FILEFILTER = "textData-00000";
 	//private static final String FILEFILTER = "textData-sample3";
 
@@ -58,11 +90,106 @@ public class NGramCount extends Configured implements Tool {
 						+ ARGNAME_NUMREDUCE + " <number_of_reducers> ]\n"
 						+ "                         [ " + ARGNAME_CONF
 						+ " <conffile> ]\n" + "                         [ "
-						+ ARGNAME_MAXFILES + " <maxfiles> ]");
+						+ ARGNAME_MAXFILES + " <maxfiles> ]\n"
+						+ "                         [ " + ARGNAME_ORDER
+						+ " <order> ]\n" + "                         [ "
+						+ ARGNAME_MINORDER
+						+ " <minorder> ]\n" + "                         [ "
+						+ ARGNAME_HEAVYHITTERS
+						+ " <counters> ]\n" + "                         [ "
+						+ ARGNAME_BINARY + " ]\n" + "                         [ "
+						+ ARGNAME_TOTALORDER + " ]\n" + "                         [ "
+						+ ARGNAME_ALPHABET + " letters|alnum|soundex|<group>,<group>,... ]\n"
+						+ "                         [ " + ARGNAME_UTF8 + " ]\n" + "                         [ "
+						+ ARGNAME_MAPPER
+						+ " array|bigarray|direct|hashmap|int2long|long2long|offheap|128|multiorder|spacesaving ]");
 		System.out.println("");
 		GenericOptionsParser.printGenericCommandUsage(System.out);
 	}
 
+	/**
+	 * Returns the n-gram order set in the job configuration.
+	 */
+	public static int getOrder(Configuration conf) {
+		int order = conf.getInt(CONF_ORDER, DEFAULT_ORDER);
+		if (order < 1) {
+			throw new IllegalArgumentException("Invalid n-gram order: " + order);
+		}
+		return order;
+	}
+
+	public static void setOrder(Configuration conf, int order) {
+		conf.setInt(CONF_ORDER, order);
+	}
+
+	/**
+	 * Returns the lowest order counted in the same pass, which defaults to the
+	 * order itself.
+	 */
+	public static int getMinOrder(Configuration conf) {
+		int order = getOrder(conf);
+		int minOrder = conf.getInt(CONF_MIN_ORDER, order);
+		if (minOrder < 1 || minOrder > order) {
+			throw new IllegalArgumentException("Invalid minimum n-gram order: " + minOrder);
+		}
+		return minOrder;
+	}
+
+	public static void setMinOrder(Configuration conf, int minOrder) {
+		conf.setInt(CONF_MIN_ORDER, minOrder);
+	}
+
+	public static int getSpillSize(Configuration conf) {
+		return conf.getInt(CONF_SPILL_SIZE, DEFAULT_SPILL_SIZE);
+	}
+
+	public static int getHeavyHitters(Configuration conf) {
+		return conf.getInt(CONF_HEAVY_HITTERS, DEFAULT_HEAVY_HITTERS);
+	}
+
+	/**
+	 * Returns the mapper with the densest key encoding that fits the given
+	 * order in the given alphabet: an int key up to
+	 * {@link Alphabet#maxIntOrder()}, a long key up to {@link Alphabet#maxOrder()}
+	 * and a 128-bit key above that.
+	 */
+	@SuppressWarnings("rawtypes")
+	public static Class<? extends Mapper> getMapperClass(Alphabet alphabet, int order) {
+		if (order <= alphabet.maxIntOrder()) {
+			return NGramCountMapperInt2LongHashMap.class;
+		} else if (order <= alphabet.maxOrder()) {
+			return NGramCountMapperLong2LongHashMap.class;
+		} else {
+			return NGramCountMapper128.class;
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static Class<? extends Mapper> getMapperClass(String name) {
+		if (name.equals("array")) {
+			return NGramCountMapperArray.class;
+		} else if (name.equals("bigarray")) {
+			return NGramCountMapperBigArray.class;
+		} else if (name.equals("direct")) {
+			return NGramCountMapperDirect.class;
+		} else if (name.equals("hashmap")) {
+			return NGramCountMapperHashMap.class;
+		} else if (name.equals("int2long")) {
+			return NGramCountMapperInt2LongHashMap.class;
+		} else if (name.equals("long2long")) {
+			return NGramCountMapperLong2LongHashMap.class;
+		} else if (name.equals("offheap")) {
+			return NGramCountMapperOffHeap.class;
+		} else if (name.equals("128")) {
+			return NGramCountMapper128.class;
+		} else if (name.equals("multiorder")) {
+			return NGramCountMapperMultiOrder.class;
+		} else if (name.equals("spacesaving")) {
+			return NGramCountMapperSpaceSaving.class;
+		}
+		throw new IllegalArgumentException("Unknown mapper: " + name);
+	}
+
 	/**
 	 * Implmentation of Tool.run() method, which builds and runs the Hadoop job.
 	 * 
@@ -78,7 +205,15 @@ public class NGramCount extends Configured implements Tool {
 		String outputPath = null;
 		String configFile = null;
 		boolean overwrite = false;
+		boolean binary = false;
+		boolean totalOrder = false;
 		int numReducers = 1;
+		int order = DEFAULT_ORDER;
+		int minOrder = -1;
+		String mapperName = null;
+		String alphabetName = null;
+		boolean utf8 = false;
+		Configuration conf = getConf();
 
 		// Read the command line arguments. We're not using GenericOptionsParser
 		// to prevent having to include commons.cli as a dependency.
@@ -91,11 +226,28 @@ public class NGramCount extends Configured implements Tool {
 				} else if (args[i].equals(ARGNAME_CONF)) {
 					configFile = args[++i];
 				} else if (args[i].equals(ARGNAME_MAXFILES)) {
-					SimpleInputFilter.setMax(Long.parseLong(args[++i]));
+					SimpleInputFilter.setMax(conf, Long.parseLong(args[++i]));
 				} else if (args[i].equals(ARGNAME_OVERWRITE)) {
 					overwrite = true;
+				} else if (args[i].equals(ARGNAME_BINARY)) {
+					binary = true;
+				} else if (args[i].equals(ARGNAME_TOTALORDER)) {
+					totalOrder = true;
 				} else if (args[i].equals(ARGNAME_NUMREDUCE)) {
 					numReducers = Integer.parseInt(args[++i]);
+				} else if (args[i].equals(ARGNAME_ORDER)) {
+					order = Integer.parseInt(args[++i]);
+				} else if (args[i].equals(ARGNAME_MINORDER)) {
+					minOrder = Integer.parseInt(args[++i]);
+				} else if (args[i].equals(ARGNAME_HEAVYHITTERS)) {
+					conf.setInt(CONF_HEAVY_HITTERS, Integer.parseInt(args[++i]));
+					mapperName = "spacesaving";
+				} else if (args[i].equals(ARGNAME_MAPPER)) {
+					mapperName = args[++i];
+				} else if (args[i].equals(ARGNAME_ALPHABET)) {
+					alphabetName = args[++i];
+				} else if (args[i].equals(ARGNAME_UTF8)) {
+					utf8 = true;
 				} else {
 					LOG.warn("Unsupported argument: " + args[i]);
 				}
@@ -117,16 +269,26 @@ public class NGramCount extends Configured implements Tool {
 		}
 
 		// Create the Hadoop job.
-		Configuration conf = getConf();
+		setOrder(conf, order);
+		if (alphabetName != null || utf8) {
+			Alphabet.set(conf, alphabetName == null ? Alphabet.LETTERS : alphabetName, utf8);
+		}
+		Alphabet alphabet = Alphabet.get(conf);
+		if (minOrder > 0) {
+			setMinOrder(conf, minOrder);
+			if (mapperName == null) {
+				mapperName = "multiorder";
+			}
+		}
 		Job job = new Job(conf);
 		job.setJarByClass(NGramCount.class);
 		job.setNumReduceTasks(numReducers);
 
 		// Scan the provided input path for ARC files.
 		LOG.info("setting input path to '" + inputPath + "'");
-		SimpleInputFilter.setFilter(FILEFILTER);
-		FileInputFormat.addInputPath(job, new Path(inputPath));
-		FileInputFormat.setInputPathFilter(job, SimpleInputFilter.class);
+		SimpleInputFilter.setFilter(job.getConfiguration(), FILEFILTER);
+		InputDiscovery.useManifests(job.getConfiguration());
+		InputDiscovery.addInputPaths(job, new Path(inputPath));
 
 		// Delete the output path directory if it already exists and user wants
 		// to overwrite it.
@@ -148,22 +310,72 @@ public class NGramCount extends Configured implements Tool {
 		job.setInputFormatClass(SequenceFileInputFormat.class);
 		//job.setInputFormatClass(TextInputFormat.class);
 
-		// Set which OutputFormat class to use.
-		job.setOutputFormatClass(TextOutputFormat.class);
+		// Pick the mapper, and with it the key encoding, for this order.
+		@SuppressWarnings("rawtypes")
+		Class<? extends Mapper> mapperClass = mapperName == null ? getMapperClass(alphabet, order)
+				: getMapperClass(mapperName);
+		if (minOrder > 0 && mapperClass != NGramCountMapperMultiOrder.class) {
+			throw new IllegalArgumentException(ARGNAME_MINORDER + " needs the multiorder mapper, not "
+					+ mapperClass.getSimpleName());
+		}
+		LOG.info("counting " + getMinOrder(conf) + ".." + order + "-grams of " + alphabet + " with "
+				+ mapperClass.getSimpleName());
 
 		// Set the output data types.
-		job.setOutputKeyClass(Text.class);
-		job.setOutputValueClass(LongWritable.class);
+		if (mapperClass == NGramCountMapper128.class) {
+			job.setOutputKeyClass(NGram128Writable.class);
+		} else {
+			job.setOutputKeyClass(NGramWritable.class);
+		}
+		boolean heavyHitters = mapperClass == NGramCountMapperSpaceSaving.class;
+		if (heavyHitters) {
+			job.setOutputValueClass(ApproxCountWritable.class);
+		} else {
+			job.setOutputValueClass(LongWritable.class);
+		}
+
+		// Set which OutputFormat class to use.
+		if (binary) {
+			if (heavyHitters || mapperClass == NGramCountMapper128.class) {
+				throw new IllegalArgumentException(ARGNAME_BINARY + " needs long keys and exact counts");
+			}
+			job.setOutputFormatClass(NGramCountOutputFormat.class);
+		} else {
+			job.setOutputFormatClass(TextOutputFormat.class);
+		}
+
+		// Cut the key space into sorted ranges that keep n-grams with the same
+		// prefix together, instead of hashing keys over the reducers.
+		if (totalOrder) {
+			if (mapperClass == NGramCountMapper128.class) {
+				throw new IllegalArgumentException(ARGNAME_TOTALORDER + " needs long keys");
+			}
+			job.setPartitionerClass(NGramPrefixPartitioner.class);
+			NGramPrefixPartitioner.writeSplitPoints(job, numReducers);
+		}
 
 		// Set which Mapper and Reducer classes to use.
-		job.setMapperClass(ByteMapper.class);
-		job.setCombinerClass(LongSumReducer.class);
-		job.setReducerClass(LongSumReducer.class);
+		job.setMapperClass(mapperClass);
+		if (heavyHitters) {
+			job.setCombinerClass(SpaceSavingReducer.class);
+			job.setReducerClass(SpaceSavingReducer.class);
+		} else {
+			job.setCombinerClass(LongSumReducer.class);
+			job.setReducerClass(LongSumReducer.class);
+		}
 
 		// Set the name of the job.
 		job.setJobName("Norvig Award - NGramCount");
 
 		if (job.waitForCompletion(true)) {
+			if (heavyHitters) {
+				long ngrams = job.getCounters().findCounter(NGramCountMapperSpaceSaving.MAPPERCOUNTER.NGRAMS)
+						.getValue();
+				long slack = job.getCounters().findCounter(NGramCountMapperSpaceSaving.MAPPERCOUNTER.MIN_COUNT_SUM)
+						.getValue();
+				LOG.info("estimated the heavy hitters among " + ngrams + " n-grams; true counts lie in "
+						+ "[count - error, count + " + slack + "]");
+			}
 			return 0;
 		} else {
 			return 1;
@@ -0,0 +1,258 @@
+package ngramcount;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * A compact binary file of n-gram counts, sorted by key.
+ *
+ * <p>Records are grouped in blocks of at most {@link #BLOCK_SIZE}. A block
+ * starts with its first key in full; every following key is stored as an
+ * unsigned varint of its difference to the previous key, and every count as
+ * an unsigned varint. Since consecutive n-grams share most of their
+ * characters, a record typically takes two to four bytes instead of the
+ * twenty-odd of a text line.
+ *
+ * <p>After the last block comes the block index: for every block its first
+ * key, file offset and number of records. The file ends with the offset of
+ * the index, the number of blocks, the number of records and a magic number.
+ */
+public class NGramCountFile {
+
+	public static final String EXTENSION = ".ngc";
+	public static final int BLOCK_SIZE = 4096;
+
+	private static final int MAGIC = 0x4e474331; // "NGC1"
+	private static final int FOOTER_SIZE = 8 + 4 + 8 + 4;
+
+	private NGramCountFile() {
+	}
+
+	static void writeVLong(DataOutput out, long v) throws IOException {
+		while ((v & ~0x7FL) != 0) {
+			out.writeByte((int) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		out.writeByte((int) v);
+	}
+
+	static long readVLong(DataInput in) throws IOException {
+		long v = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readByte();
+			v |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return v;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/** Writes records, which must be appended in ascending key order. */
+	public static class Writer {
+		private final FSDataOutputStream out;
+
+		// ~ The block index, kept in memory until close()
+		private long[] blockKeys = new long[16];
+		private long[] blockOffsets = new long[16];
+		private int[] blockRecords = new int[16];
+		private int blocks = 0;
+
+		private long records = 0;
+		private int inBlock = 0;
+		private long lastKey;
+
+		public Writer(FSDataOutputStream out) {
+			this.out = out;
+		}
+
+		public Writer(FileSystem fs, Path path) throws IOException {
+			this(fs.create(path));
+		}
+
+		public void append(long key, long count) throws IOException {
+			if (records > 0 && key <= lastKey) {
+				throw new IOException("Keys out of order: " + key + " after " + lastKey);
+			}
+			if (inBlock == 0 || inBlock == BLOCK_SIZE) {
+				startBlock(key);
+				out.writeLong(key);
+			} else {
+				writeVLong(out, key - lastKey);
+			}
+			writeVLong(out, count);
+			lastKey = key;
+			inBlock++;
+			records++;
+		}
+
+		private void startBlock(long key) throws IOException {
+			if (blocks > 0) {
+				blockRecords[blocks - 1] = inBlock;
+			}
+			if (blocks == blockKeys.length) {
+				blockKeys = Arrays.copyOf(blockKeys, 2 * blocks);
+				blockOffsets = Arrays.copyOf(blockOffsets, 2 * blocks);
+				blockRecords = Arrays.copyOf(blockRecords, 2 * blocks);
+			}
+			blockKeys[blocks] = key;
+			blockOffsets[blocks] = out.getPos();
+			blocks++;
+			inBlock = 0;
+		}
+
+		public void close() throws IOException {
+			if (blocks > 0) {
+				blockRecords[blocks - 1] = inBlock;
+			}
+			long indexOffset = out.getPos();
+			for (int i = 0; i < blocks; i++) {
+				out.writeLong(blockKeys[i]);
+				out.writeLong(blockOffsets[i]);
+				out.writeInt(blockRecords[i]);
+			}
+			out.writeLong(indexOffset);
+			out.writeInt(blocks);
+			out.writeLong(records);
+			out.writeInt(MAGIC);
+			out.close();
+		}
+	}
+
+	/** Reads records sequentially, or from the block holding a given key. */
+	public static class Reader {
+		private final FSDataInputStream in;
+		private final long[] blockKeys;
+		private final long[] blockOffsets;
+		private final int[] blockRecords;
+		private final long records;
+
+		private int block = -1;
+		private int remaining = 0;
+		private boolean first;
+		private long key;
+		private long count;
+
+		public Reader(FileSystem fs, Path path) throws IOException {
+			long length = fs.getFileStatus(path).getLen();
+			in = fs.open(path);
+			if (length < FOOTER_SIZE) {
+				in.close();
+				throw new IOException(path + " is not an n-gram count file");
+			}
+			in.seek(length - FOOTER_SIZE);
+			long indexOffset = in.readLong();
+			int blocks = in.readInt();
+			records = in.readLong();
+			if (in.readInt() != MAGIC) {
+				in.close();
+				throw new IOException(path + " is not an n-gram count file");
+			}
+			blockKeys = new long[blocks];
+			blockOffsets = new long[blocks];
+			blockRecords = new int[blocks];
+			in.seek(indexOffset);
+			for (int i = 0; i < blocks; i++) {
+				blockKeys[i] = in.readLong();
+				blockOffsets[i] = in.readLong();
+				blockRecords[i] = in.readInt();
+			}
+		}
+
+		public Reader(Configuration conf, Path path) throws IOException {
+			this(path.getFileSystem(conf), path);
+		}
+
+		public long getRecords() {
+			return records;
+		}
+
+		/**
+		 * Positions the reader at the start of the block that would contain
+		 * <code>k</code>, so the next calls to {@link #next()} scan from there.
+		 */
+		public void seek(long k) throws IOException {
+			if (blockKeys.length == 0) {
+				return;
+			}
+			int lo = 0, hi = blockKeys.length - 1, b = 0;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				if (blockKeys[mid] <= k) {
+					b = mid;
+					lo = mid + 1;
+				} else {
+					hi = mid - 1;
+				}
+			}
+			openBlock(b);
+		}
+
+		private void openBlock(int b) throws IOException {
+			block = b;
+			in.seek(blockOffsets[b]);
+			remaining = blockRecords[b];
+			first = true;
+		}
+
+		/** Advances to the next record; returns false at the end of the file. */
+		public boolean next() throws IOException {
+			while (remaining == 0) {
+				if (block + 1 >= blockKeys.length) {
+					return false;
+				}
+				openBlock(block + 1);
+			}
+			try {
+				key = first ? in.readLong() : key + readVLong(in);
+				count = readVLong(in);
+			} catch (EOFException e) {
+				throw new IOException("Truncated n-gram count file", e);
+			}
+			first = false;
+			remaining--;
+			return true;
+		}
+
+		public long key() {
+			return key;
+		}
+
+		public long count() {
+			return count;
+		}
+
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	/**
+	 * Prints the records of the given files as text, in the same format as the
+	 * text output of {@link NGramCount}.
+	 */
+	public static void main(String[] args) throws IOException {
+		Configuration conf = new Configuration();
+		NGramWritable ngram = new NGramWritable();
+		for (String arg : args) {
+			Reader reader = new Reader(conf, new Path(arg));
+			try {
+				while (reader.next()) {
+					ngram.set(reader.key());
+					System.out.println(ngram + "\t" + reader.count());
+				}
+			} finally {
+				reader.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package ngramcount;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/**
+ * Reads the records of {@link NGramCountFile}s written by
+ * {@link NGramCountOutputFormat}. Every file is read by a single mapper, in
+ * key order.
+ */
+public class NGramCountInputFormat extends FileInputFormat<NGramWritable, LongWritable> {
+
+	@Override
+	protected boolean isSplitable(JobContext context, Path filename) {
+		return false;
+	}
+
+	@Override
+	public RecordReader<NGramWritable, LongWritable> createRecordReader(InputSplit split,
+			TaskAttemptContext context) {
+		return new RecordReader<NGramWritable, LongWritable>() {
+			private NGramCountFile.Reader reader;
+			private NGramWritable key = new NGramWritable();
+			private LongWritable value = new LongWritable();
+			private long read = 0;
+
+			@Override
+			public void initialize(InputSplit split, TaskAttemptContext context) throws IOException {
+				reader = new NGramCountFile.Reader(context.getConfiguration(), ((FileSplit) split).getPath());
+			}
+
+			@Override
+			public boolean nextKeyValue() throws IOException {
+				if (!reader.next()) {
+					return false;
+				}
+				key.set(reader.key());
+				value.set(reader.count());
+				read++;
+				return true;
+			}
+
+			@Override
+			public NGramWritable getCurrentKey() {
+				return key;
+			}
+
+			@Override
+			public LongWritable getCurrentValue() {
+				return value;
+			}
+
+			@Override
+			public float getProgress() {
+				return reader.getRecords() == 0 ? 1.0f : read / (float) reader.getRecords();
+			}
+
+			@Override
+			public void close() throws IOException {
+				if (reader != null) {
+					reader.close();
+				}
+			}
+		};
+	}
+}
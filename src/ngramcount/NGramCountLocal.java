@@ -0,0 +1,489 @@
+package ngramcount;
+
+import it.unimi.dsi.fastutil.longs.ConcurrentLong2LongCounterMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap.Entry;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongTopK;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.fastutil.longs.ShardedLong2LongCounterMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.log4j.Logger;
+
+/**
+ * Counts n-grams on a single machine, without Hadoop's job machinery.
+ *
+ * <p>Input files are either SequenceFiles of {@link Text} values, as in the
+ * Common Crawl textData segments, or plain text, which is memory-mapped and
+ * cut into line-aligned chunks; every line is a record, as with
+ * TextInputFormat. The files and chunks are counted in a fork-join pool with
+ * one {@link Long2LongOpenHashMap} per worker thread, and the tables are merged
+ * at the end, region by region in parallel; with <code>-shared</code>, all
+ * workers count into a single {@link ConcurrentLong2LongCounterMap} instead, which costs one table rather
+ * than one per thread but must be sized up front. With <code>-sharded</code>,
+ * they count into a {@link ShardedLong2LongCounterMap}, which grows as needed
+ * and is updated in batches under one lock per shard. The window is the one of the
+ * mappers, {@link NGramScanner}, and
+ * the output is written sorted as by a single reducer, in the text format of
+ * {@link NGramCount} or, with <code>-binary</code>, as an {@link NGramCountFile}.
+ * With <code>-top</code>, only the most frequent n-grams are written, by
+ * decreasing count; they are picked by a {@link Long2LongTopK} straight from
+ * the table, without copying and sorting all of it. With
+ * <code>-parallelsort</code>, the output is sorted on all processors, at the
+ * cost of 16 more bytes per n-gram.
+ */
+public class NGramCountLocal {
+
+	static final Logger LOG = Logger.getLogger(NGramCountLocal.class);
+
+	/** Configuration key that sorts the output with {@link LongArrays#parallelRadixSort(long[], long[])}. */
+	public static final String CONF_PARALLEL_SORT = "ngramcount.local.sort.parallel";
+
+	private static final int CHUNK_SIZE = 64 << 20;
+
+	// ~ The keys a worker buffers per shard before locking it, and over all shards: 1 MB of keys and counts
+	private static final int WRITER_BUFFER = 256;
+	private static final int WRITER_KEYS = 1 << 16;
+
+	private final int n;
+	private final long tag;
+	private final Configuration conf;
+	private final Alphabet alphabet;
+
+	// ~ Every table handed out to a worker, for the final merge
+	private final List<Long2LongOpenHashMap> tables = Collections
+			.synchronizedList(new ArrayList<Long2LongOpenHashMap>());
+
+	private final ThreadLocal<Long2LongOpenHashMap> table = new ThreadLocal<Long2LongOpenHashMap>() {
+		@Override
+		protected Long2LongOpenHashMap initialValue() {
+			Long2LongOpenHashMap h = new Long2LongOpenHashMap(1 << 20);
+			tables.add(h);
+			return h;
+		}
+	};
+
+	// ~ The table shared by all workers, when counting with countShared()
+	private ConcurrentLong2LongCounterMap shared;
+
+	// ~ The sharded table and the writer of each worker, when counting with countSharded()
+	private ShardedLong2LongCounterMap sharded;
+	private final ThreadLocal<ShardedLong2LongCounterMap.Writer> writer = new ThreadLocal<ShardedLong2LongCounterMap.Writer>() {
+		@Override
+		protected ShardedLong2LongCounterMap.Writer initialValue() {
+			return sharded.writer(Math.max(1, Math.min(WRITER_BUFFER, WRITER_KEYS / sharded.shards())));
+		}
+	};
+
+	public NGramCountLocal(int n, Configuration conf) {
+		alphabet = Alphabet.get(conf);
+		if (n > alphabet.maxOrder()) {
+			throw new IllegalArgumentException("Order " + n + " does not fit a long key");
+		}
+		this.n = n;
+		this.tag = (long) n << NGramWritable.ORDER_SHIFT;
+		this.conf = conf;
+	}
+
+	/** A piece of input counted by one task: a SequenceFile or a range of a text file. */
+	private static class Split {
+		final File file;
+		final long start;
+		final long end;
+		final boolean sequenceFile;
+
+		Split(File file, long start, long end, boolean sequenceFile) {
+			this.file = file;
+			this.start = start;
+			this.end = end;
+			this.sequenceFile = sequenceFile;
+		}
+	}
+
+	private class CountTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<Split> splits;
+
+		CountTask(List<Split> splits) {
+			this.splits = splits;
+		}
+
+		@Override
+		protected void compute() {
+			if (splits.size() > 1) {
+				int mid = splits.size() / 2;
+				invokeAll(new CountTask(splits.subList(0, mid)), new CountTask(splits.subList(mid, splits.size())));
+				return;
+			}
+			Split split = splits.get(0);
+			try {
+				if (split.sequenceFile) {
+					countSequenceFile(split.file);
+				} else {
+					countText(split);
+				}
+			} catch (IOException e) {
+				throw new RuntimeException("Failed to count " + split.file, e);
+			}
+		}
+	}
+
+	private void countSequenceFile(File file) throws IOException {
+		Long2LongOpenHashMap h = shared == null && sharded == null ? table.get() : null;
+		ShardedLong2LongCounterMap.Writer w = sharded == null ? null : writer.get();
+		NGramScanner scanner = new NGramScanner(n, alphabet);
+		SequenceFile.Reader reader = new SequenceFile.Reader(FileSystem.getLocal(conf), new Path(file.getPath()), conf);
+		try {
+			Writable key = (Writable) ReflectionUtils.newInstance(reader.getKeyClass(), conf);
+			Text value = new Text();
+			while (reader.next(key, value)) {
+				byte[] bytes = value.getBytes();
+				int length = value.getLength();
+				scanner.reset();
+				for (int i = 0; i < length; i++) {
+					if (scanner.push(bytes[i])) {
+						add(h, w, tag | scanner.ngram());
+					}
+				}
+			}
+		} finally {
+			reader.close();
+			if (w != null) {
+				w.flush();
+			}
+		}
+	}
+
+	/**
+	 * Counts the lines starting in <code>[start, end)</code>, reading on past
+	 * <code>end</code> to finish the last one, as LineRecordReader does. A line
+	 * starts at the beginning of the file or right after a line end.
+	 */
+	private void countText(Split split) throws IOException {
+		Long2LongOpenHashMap h = shared == null && sharded == null ? table.get() : null;
+		ShardedLong2LongCounterMap.Writer w = sharded == null ? null : writer.get();
+		NGramScanner scanner = new NGramScanner(n, alphabet);
+		RandomAccessFile raf = new RandomAccessFile(split.file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			// ~ Map from the byte before the split, to see whether a line starts at it
+			long offset = split.start > 0 ? split.start - 1 : 0;
+			int length = (int) Math.min(channel.size() - offset, Integer.MAX_VALUE);
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+			long end = split.end - offset;
+			int i = 0;
+			if (split.start > 0) {
+				// ~ The line under way belongs to the previous split
+				while (i < length && !isLineEnd(buf.get(i))) {
+					i++;
+				}
+			}
+			scanner.reset();
+			for (; i < length; i++) {
+				byte b = buf.get(i);
+				if (isLineEnd(b)) {
+					if (i + 1 >= end) {
+						break;
+					}
+					scanner.reset();
+				} else if (scanner.push(b)) {
+					add(h, w, tag | scanner.ngram());
+				}
+			}
+		} finally {
+			raf.close();
+			if (w != null) {
+				w.flush();
+			}
+		}
+	}
+
+	private void add(Long2LongOpenHashMap h, ShardedLong2LongCounterMap.Writer w, long k) {
+		if (h != null) {
+			h.add(k, 1L);
+		} else if (w != null) {
+			w.add(k, 1L);
+		} else {
+			shared.add(k, 1L);
+		}
+	}
+
+	private static boolean isLineEnd(byte b) {
+		return b == '\n' || b == '\r';
+	}
+
+	private static boolean isSequenceFile(File file) throws IOException {
+		byte[] magic = new byte[3];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			return in.read(magic) == 3 && magic[0] == 'S' && magic[1] == 'E' && magic[2] == 'Q';
+		} finally {
+			in.close();
+		}
+	}
+
+	private List<Split> split(List<File> files) throws IOException {
+		List<Split> splits = new ArrayList<Split>();
+		for (File file : files) {
+			if (isSequenceFile(file)) {
+				splits.add(new Split(file, 0, file.length(), true));
+			} else {
+				for (long start = 0; start < file.length(); start += CHUNK_SIZE) {
+					splits.add(new Split(file, start, Math.min(start + CHUNK_SIZE, file.length()), false));
+				}
+			}
+		}
+		return splits;
+	}
+
+	private void run(List<Split> splits, int threads) {
+		LOG.info("counting " + n + "-grams in " + splits.size() + " splits with " + threads + " threads");
+		if (!splits.isEmpty()) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				pool.invoke(new CountTask(splits));
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/** Counts the given files with <code>threads</code> workers and returns the merged table. */
+	public Long2LongOpenHashMap count(List<File> files, int threads) throws IOException {
+		run(split(files), threads);
+
+		// ~ Merge everything into the largest table
+		Long2LongOpenHashMap result = new Long2LongOpenHashMap();
+		for (Long2LongOpenHashMap h : tables) {
+			if (h.size() > result.size()) {
+				result = h;
+			}
+		}
+		List<Long2LongOpenHashMap> others = new ArrayList<Long2LongOpenHashMap>();
+		for (Long2LongOpenHashMap h : tables) {
+			if (h != result) {
+				others.add(h);
+			}
+		}
+		result.parallelAddAll(others.toArray(new Long2LongOpenHashMap[others.size()]));
+		tables.clear();
+		return result;
+	}
+
+	/**
+	 * Counts the given files with <code>threads</code> workers into one shared
+	 * table, which fails once it holds <code>capacity</code> distinct n-grams.
+	 */
+	public ConcurrentLong2LongCounterMap countShared(List<File> files, int threads, int capacity) throws IOException {
+		List<Split> splits = split(files);
+		shared = new ConcurrentLong2LongCounterMap(capacity);
+		try {
+			run(splits, threads);
+			return shared;
+		} finally {
+			shared = null;
+		}
+	}
+
+	/**
+	 * Counts the given files with <code>threads</code> workers into one table
+	 * of 2<sup>shardBits</sup> shards.
+	 */
+	public ShardedLong2LongCounterMap countSharded(List<File> files, int threads, int shardBits) throws IOException {
+		List<Split> splits = split(files);
+		sharded = new ShardedLong2LongCounterMap(shardBits);
+		try {
+			run(splits, threads);
+			return sharded;
+		} finally {
+			sharded = null;
+		}
+	}
+
+	/** Writes the counts sorted by key, as the single reducer of {@link NGramCount} would. */
+	public static void write(Long2LongOpenHashMap h, String output, boolean binary, Configuration conf)
+			throws IOException {
+		write(h.long2LongEntrySet().fastIterator(), h.size(), output, binary, conf);
+	}
+
+	public static void write(ConcurrentLong2LongCounterMap h, String output, boolean binary, Configuration conf)
+			throws IOException {
+		write(h.fastIterator(), h.size(), output, binary, conf);
+	}
+
+	public static void write(ShardedLong2LongCounterMap h, String output, boolean binary, Configuration conf)
+			throws IOException {
+		write(h.fastIterator(), h.size(), output, binary, conf);
+	}
+
+	private static void write(ObjectIterator<Entry> it, int size, String output, boolean binary, Configuration conf)
+			throws IOException {
+		long[] keys = new long[size];
+		long[] counts = new long[size];
+		for (int i = 0; it.hasNext(); i++) {
+			Entry e = it.next();
+			keys[i] = e.getLongKey();
+			counts[i] = e.getLongValue();
+		}
+		// ~ The parallel sort needs two more longs per pair, just when the heap is fullest
+		if (conf.getBoolean(CONF_PARALLEL_SORT, false) && Runtime.getRuntime().availableProcessors() > 1) {
+			LongArrays.parallelRadixSort(keys, counts);
+		} else {
+			LongArrays.radixSort(keys, counts);
+		}
+
+		if (binary) {
+			NGramCountFile.Writer writer = new NGramCountFile.Writer(FileSystem.getLocal(conf), new Path(output));
+			for (int i = 0; i < keys.length; i++) {
+				writer.append(keys[i], counts[i]);
+			}
+			writer.close();
+		} else {
+			print(keys, counts, keys.length, output, conf);
+		}
+	}
+
+	/** Writes the n-grams picked by <code>top</code>, by decreasing count, in the text format of {@link NGramCount}. */
+	public static void writeTop(Long2LongTopK top, String output, Configuration conf) throws IOException {
+		long[] keys = new long[top.size()];
+		long[] counts = new long[top.size()];
+		print(keys, counts, top.drain(keys, counts), output, conf);
+	}
+
+	private static void print(long[] keys, long[] counts, int size, String output, Configuration conf)
+			throws IOException {
+		PrintStream out = output == null ? System.out : new PrintStream(new BufferedOutputStream(
+				new FileOutputStream(output), 1 << 16));
+		NGramWritable ngram = new NGramWritable();
+		ngram.setConf(conf);
+		for (int i = 0; i < size; i++) {
+			ngram.set(keys[i]);
+			out.print(ngram);
+			out.print('\t');
+			out.println(counts[i]);
+		}
+		out.flush();
+		if (out != System.out) {
+			out.close();
+		}
+	}
+
+	public static void usage() {
+		System.out.println("\n  ngramcount.NGramCountLocal [ -order <order> ] [ -threads <threads> ]\n"
+				+ "                             [ -shared <capacity> | -sharded <shard bits> ]\n"
+				+ "                             [ -alphabet <alphabet> ] [ -utf8 ] [ -top <k> ] [ -parallelsort ]\n"
+				+ "                             [ -out <outputfile> [ -binary ] ] <inputfile>...");
+	}
+
+	public static void main(String[] args) throws IOException {
+		int order = NGramCount.DEFAULT_ORDER;
+		int threads = Runtime.getRuntime().availableProcessors();
+		String output = null;
+		boolean binary = false;
+		int capacity = 0;
+		int shardBits = -1;
+		String alphabet = Alphabet.LETTERS;
+		boolean utf8 = false;
+		int top = 0;
+		boolean parallelSort = false;
+		List<File> files = new ArrayList<File>();
+
+		for (int i = 0; i < args.length; i++) {
+			try {
+				if (args[i].equals("-order")) {
+					order = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-threads")) {
+					threads = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-shared")) {
+					capacity = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-sharded")) {
+					shardBits = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-out")) {
+					output = args[++i];
+				} else if (args[i].equals("-binary")) {
+					binary = true;
+				} else if (args[i].equals("-alphabet")) {
+					alphabet = args[++i];
+				} else if (args[i].equals("-utf8")) {
+					utf8 = true;
+				} else if (args[i].equals("-top")) {
+					top = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-parallelsort")) {
+					parallelSort = true;
+				} else {
+					files.add(new File(args[i]));
+				}
+			} catch (ArrayIndexOutOfBoundsException e) {
+				usage();
+				throw new IllegalArgumentException();
+			}
+		}
+		if (files.isEmpty() || (binary && (output == null || top > 0)) || (capacity > 0 && shardBits >= 0)) {
+			usage();
+			throw new IllegalArgumentException();
+		}
+
+		Configuration conf = new Configuration();
+		Alphabet.set(conf, alphabet, utf8);
+		conf.setBoolean(CONF_PARALLEL_SORT, parallelSort);
+		long start = System.currentTimeMillis();
+		NGramCountLocal local = new NGramCountLocal(order, conf);
+		if (shardBits >= 0) {
+			ShardedLong2LongCounterMap h = local.countSharded(files, threads, shardBits);
+			LOG.info("counted " + h.size() + " distinct " + order + "-grams in "
+					+ (System.currentTimeMillis() - start) + " ms");
+			if (top > 0) {
+				Long2LongTopK t = new Long2LongTopK(top);
+				t.offer(h.fastIterator());
+				writeTop(t, output, conf);
+			} else {
+				write(h, output, binary, conf);
+			}
+		} else if (capacity > 0) {
+			ConcurrentLong2LongCounterMap h = local.countShared(files, threads, capacity);
+			LOG.info("counted " + h.size() + " distinct " + order + "-grams in "
+					+ (System.currentTimeMillis() - start) + " ms");
+			if (top > 0) {
+				Long2LongTopK t = new Long2LongTopK(top);
+				t.offer(h.fastIterator());
+				writeTop(t, output, conf);
+			} else {
+				write(h, output, binary, conf);
+			}
+		} else {
+			Long2LongOpenHashMap h = local.count(files, threads);
+			LOG.info("counted " + h.size() + " distinct " + order + "-grams in "
+					+ (System.currentTimeMillis() - start) + " ms");
+			if (top > 0) {
+				Long2LongTopK t = new Long2LongTopK(top);
+				t.offer(h);
+				writeTop(t, output, conf);
+			} else {
+				write(h, output, binary, conf);
+			}
+		}
+	}
+}
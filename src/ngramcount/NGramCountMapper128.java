@@ -0,0 +1,97 @@
+package ngramcount;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+
+/**
+ * Counts n-grams that are too long for a long key, packing them into 128 bits.
+ * The rolling window is kept in two longs: <code>lo</code> holds the most
+ * recent characters and the bits shifted out of it move into <code>hi</code>.
+ */
+public class NGramCountMapper128<KEY> extends Mapper<KEY, Text, NGram128Writable, LongWritable> {
+	protected static enum MAPPERCOUNTER {
+		RECORDS_IN, EMPTY_PAGE_TEXT, EXCEPTIONS
+	}
+
+	private char[] transitions;
+	private int bitsPerChar;
+
+	private int n;
+	private long HI_MASK;
+
+	private NGram128Writable probe = new NGram128Writable();
+	private Map<NGram128Writable, LongWritable> h = new HashMap<NGram128Writable, LongWritable>(1 << 20);
+
+	protected void setup(Context context) throws IOException, InterruptedException {
+		n = NGramCount.getOrder(context.getConfiguration());
+		Alphabet alphabet = Alphabet.get(context.getConfiguration());
+		transitions = TransitionTable.of(alphabet);
+		bitsPerChar = alphabet.bitsPerChar();
+		if (n > alphabet.max128Order()) {
+			throw new IllegalArgumentException("Order " + n + " does not fit a 128-bit key");
+		}
+		int hiBits = bitsPerChar * n - 64;
+		HI_MASK = hiBits <= 0 ? 0L : (1L << hiBits) - 1L;
+		h.clear();
+	}
+
+	@Override
+	public void map(KEY key, Text value, Context context) throws IOException {
+
+		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
+
+		try {
+			byte[] bytes = value.getBytes();
+			int length = value.getLength();
+			if (length < n) {
+				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
+			} else {
+				// ~ The loop of NGramScanner, over a window of two longs
+				long hi = 0L;
+				long lo = 0L;
+				int l = 0;
+				int state = TransitionTable.START;
+				for (int i = 0; i < length; i++) {
+					int t = transitions[state | (bytes[i] & 0xFF)];
+					state = t & TransitionTable.STATE_MASK;
+					if ((t & TransitionTable.ADVANCE) != 0) {
+						hi = ((hi << bitsPerChar) | (lo >>> (64 - bitsPerChar))) & HI_MASK;
+						lo = (lo << bitsPerChar) | (t & TransitionTable.CODE_MASK);
+						if (++l >= n) {
+							count(hi, lo);
+						}
+					}
+				}
+				if(h.size() > (1 << 19)) {
+					cleanup(context);
+					setup(context);
+				}
+			}
+		} catch (Exception ex) {
+			NGramCount.LOG.error("Caught Exception", ex);
+			context.getCounter(MAPPERCOUNTER.EXCEPTIONS).increment(1);
+		}
+	}
+
+	private void count(long hi, long lo) {
+		probe.set(hi, lo, n);
+		LongWritable c = h.get(probe);
+		if (c == null) {
+			h.put(new NGram128Writable(hi, lo, n), new LongWritable(1L));
+		} else {
+			c.set(c.get() + 1);
+		}
+	}
+
+	protected void cleanup(Context context) throws IOException, InterruptedException {
+		for (Map.Entry<NGram128Writable, LongWritable> entry: h.entrySet()) {
+			context.write(entry.getKey(), entry.getValue());
+		}
+	}
+}
@@ -21,19 +21,30 @@ public class NGramCountMapperArray<KEY> extends
 	private NGramWritable outKey = new NGramWritable();
 	private LongWritable outVal = new LongWritable(1);
 
-	private static final int BITS_PER_CHAR = 5;
-	private static final int MASK = (1 << (BITS_PER_CHAR)) - 1;
-	private static final int NUM_ENTRIES = (1 << (BITS_PER_CHAR*NGramCount.N));
-	private static final int N_MASK = NUM_ENTRIES - 1;
+	private int n;
+	private NGramScanner scanner;
 	
 	
 	//private Map<Integer, Long> h;
 	private long[] h;
 
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) {
+			h[(int) k]++;
+		}
+	};
+
 	protected void setup(Context context) throws IOException,
 			InterruptedException {
+		n = NGramCount.getOrder(context.getConfiguration());
+		Alphabet alphabet = Alphabet.get(context.getConfiguration());
+		if (n > alphabet.maxIntOrder()) {
+			throw new IllegalArgumentException("Order " + n + " does not fit an int key");
+		}
+		scanner = new NGramScanner(n, alphabet);
+		int numEntries = 1 << (alphabet.bitsPerChar() * n);
 		//h = new HashMap<Integer, Long>();
-		h = new long[NUM_ENTRIES];
+		h = new long[numEntries];
 	}
 
 	@Override
@@ -42,40 +53,12 @@ public class NGramCountMapperArray<KEY> extends
 
 		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
 		
-		boolean lastUseless = false;
-		
 		try {
-			byte[] bytes = value.getBytes();
-			if (bytes.length < NGramCount.N) {
+			int length = value.getLength();
+			if (length < n) {
 				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
 			} else {
-				int k = 0;
-				int l = 0;
-				for (int i = 0; i < bytes.length - NGramCount.N; i++) {
-					if(ASCII.isAlpha(bytes[i])) {
-						k <<= 5;
-						k |= (MASK & bytes[i]);
-						k &= N_MASK;
-						if(++l >= NGramCount.N) {
-							h[k]++;
-						}
-						lastUseless = false;
-					} else if(!lastUseless && k > 0) {
-						k <<= 5;
-						k &= N_MASK;
-						lastUseless = true;
-						if(++l >= NGramCount.N) {
-								h[k]++;
-						}
-					} else {
-						// do nothing
-					}
-					//if (h.containsKey(k)) {
-					//	h.put(k, h.get(k) + 1);
-					//} else {
-					//	h.put(k, 1L);
-					//}
-				}
+				scanner.scan(value.getBytes(), 0, length, n, sink);
 			}
 		} catch (Exception ex) {
 			NGramCount.LOG.error("Caught Exception", ex);
@@ -87,7 +70,7 @@ public class NGramCountMapperArray<KEY> extends
 			InterruptedException {
 		for (int i = 0; i < h.length; i++) {
 			if(h[i]>0) {
-				outKey.set(i);
+				outKey.set(i, n);
 				outVal.set(h[i]);
 				context.write(outKey, outVal);					
 			}
@@ -0,0 +1,76 @@
+package ngramcount;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+
+/**
+ * Counts n-grams directly indexed by their packed characters, as
+ * {@link NGramCountMapperArray} does, but in a {@link SaturatingCounterBigArray}
+ * of 16-bit counters. No hashing at all, at two bytes per possible n-gram:
+ * 64GB of counters at order 7, of which the segments for n-grams starting with
+ * unused codes are never allocated.
+ */
+public class NGramCountMapperBigArray<KEY> extends Mapper<KEY, Text, NGramWritable, LongWritable> {
+	protected static enum MAPPERCOUNTER {
+		RECORDS_IN, EMPTY_PAGE_TEXT, EXCEPTIONS, SATURATED, ALLOCATED_BYTES
+	}
+
+	/** The widest key whose table fits a large-memory node: order 7 of 5-bit characters. */
+	public static final int MAX_KEY_BITS = 35;
+
+	private NGramWritable outKey = new NGramWritable();
+	private LongWritable outVal = new LongWritable(1);
+
+	private int n;
+	private NGramScanner scanner;
+
+	private SaturatingCounterBigArray h;
+
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) {
+			h.increment(k);
+		}
+	};
+
+	protected void setup(Context context) throws IOException, InterruptedException {
+		n = NGramCount.getOrder(context.getConfiguration());
+		Alphabet alphabet = Alphabet.get(context.getConfiguration());
+		if (alphabet.bitsPerChar() * n > MAX_KEY_BITS) {
+			throw new IllegalArgumentException("Order " + n + " is too large for a direct table");
+		}
+		scanner = new NGramScanner(n, alphabet);
+		h = new SaturatingCounterBigArray(1L << (alphabet.bitsPerChar() * n));
+	}
+
+	@Override
+	public void map(KEY key, Text value, Context context) throws IOException {
+
+		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
+
+		try {
+			int length = value.getLength();
+			if (length < n) {
+				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
+			} else {
+				scanner.scan(value.getBytes(), 0, length, n, sink);
+			}
+		} catch (Exception ex) {
+			NGramCount.LOG.error("Caught Exception", ex);
+			context.getCounter(MAPPERCOUNTER.EXCEPTIONS).increment(1);
+		}
+	}
+
+	protected void cleanup(Context context) throws IOException, InterruptedException {
+		context.getCounter(MAPPERCOUNTER.SATURATED).increment(h.saturated());
+		context.getCounter(MAPPERCOUNTER.ALLOCATED_BYTES).increment(h.allocated());
+		for (long i = h.next(0); i >= 0; i = h.next(i + 1)) {
+			outKey.set(i, n);
+			outVal.set(h.get(i));
+			context.write(outKey, outVal);
+		}
+	}
+}
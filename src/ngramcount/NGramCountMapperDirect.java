@@ -18,17 +18,30 @@ public class NGramCountMapperDirect<KEY> extends
 		RECORDS_IN, EMPTY_PAGE_TEXT, EXCEPTIONS
 	}
 	
-	private static final int SIZE = 8;
-	private static final int MAX_INDEX = SIZE - 1;
+	private int SIZE;
 
 	private NGramWritable outKey = new NGramWritable();
 	private static final LongWritable ONE = new LongWritable(1L);
 
-	private static final long BITS_PER_CHAR = 5L;
-	private static final int MASK = (1 << (BITS_PER_CHAR)) - 1;
-	private static final long NUM_ENTRIES = (1L << (BITS_PER_CHAR*NGramCount.N));
-	private static final long N_MASK = NUM_ENTRIES - 1;
-	static final long x = NUM_ENTRIES >> SIZE;
+	// ~ Characters of the alphabet and every ' ', as they come
+	private NGramScanner scanner;
+
+	private Context context;
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) {
+			try {
+				outKey.set(k, SIZE);
+				context.write(outKey, ONE);
+			} catch (Exception e) {
+			}
+		}
+	};
+
+	protected void setup(Context context) throws IOException,
+			InterruptedException {
+		SIZE = NGramCount.getOrder(context.getConfiguration());
+		scanner = new NGramScanner(SIZE, Alphabet.get(context.getConfiguration()), false);
+	}
 	
 	@Override
 	public void map(KEY key, Text value, Context context)
@@ -38,50 +51,13 @@ public class NGramCountMapperDirect<KEY> extends
 		
 		// ~ Check if this line is worth spending effort on
 		if (value.getLength() >= SIZE) {
-			int j;
-			long k = 0;
-
-			// ~ Fill the buffer
-			int useless = 0;
-			for (j = 0; (j < MAX_INDEX + useless) && (j < value.getLength()); j++) {
-				int currChar = convert(value.charAt(j));
-
-				// Only a-z,toLower(A-Z) and ' '
-				if (currChar != -1) {
-					k <<= 5;
-					k |= currChar;
-					k &= N_MASK;					
-				} else {
-					useless++;
-				}
-			}
-
-			// ~ Start looping through the rest of the string
-			for (; j < value.getLength(); j++) {
-				int currChar = convert(value.charAt(j));
-				
-				if (currChar != -1) {
-					k <<= 5;
-					k |= currChar;
-					k &= N_MASK;					
-
-					try {
-						outKey.set(k);
-						context.write(outKey, ONE);
-					} catch (Exception e) {
-					}
-				}
+			this.context = context;
+			try {
+				scanner.scan(value.getBytes(), 0, value.getLength(), SIZE, sink);
+			} catch (InterruptedException e) {
 			}
 		} else {
 			context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
 		}
 	}
-
-	private static int convert(int c) {
-		if(ASCII.isAlpha(c) || c == ' ') {
-			return MASK & c;
-		} else {
-			return -1; // invalid
-		}
-	}
 }
\ No newline at end of file
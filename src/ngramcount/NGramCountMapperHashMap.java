@@ -22,16 +22,26 @@ public class NGramCountMapperHashMap<KEY> extends Mapper<KEY, Text, NGramWritabl
 	private NGramWritable outKey = new NGramWritable();
 	private LongWritable outVal = new LongWritable(1);
 
-	private static final long BITS_PER_CHAR = 5L;
-	private static final long MASK = (1L << (BITS_PER_CHAR)) - 1L;
-	private static final long NUM_ENTRIES = (1L << (BITS_PER_CHAR * NGramCount.N));
-	private static final long N_MASK = NUM_ENTRIES - 1L;
+	private int n;
+	private NGramScanner scanner;
 
 	private Map<Long, Long> h = new HashMap<Long, Long>(10000000);
 
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) {
+			if (h.containsKey(k)) {
+				h.put(k, h.get(k) + 1);
+			} else {
+				h.put(k, 1L);
+			}
+		}
+	};
+
 	// private long[] h;
 
 	protected void setup(Context context) throws IOException, InterruptedException {
+		n = NGramCount.getOrder(context.getConfiguration());
+		scanner = new NGramScanner(n, Alphabet.get(context.getConfiguration()));
 		// h = new long[NUM_ENTRIES];
 		h.clear();
 	}
@@ -41,43 +51,12 @@ public class NGramCountMapperHashMap<KEY> extends Mapper<KEY, Text, NGramWritabl
 
 		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
 
-		boolean lastUseless = false;
-
 		try {
-			byte[] bytes = value.getBytes();
-			if (bytes.length < NGramCount.N) {
+			int length = value.getLength();
+			if (length < n) {
 				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
 			} else {
-				long k = 0;
-				int l = 0;
-				for (int i = 0; i < bytes.length - NGramCount.N; i++) {
-					if (ASCII.isAlpha(bytes[i])) {
-						k <<= 5L;
-						k |= (MASK & bytes[i]);
-						k &= N_MASK;
-						if (++l >= NGramCount.N) {
-							if (h.containsKey(k)) {
-								h.put(k, h.get(k) + 1);
-							} else {
-								h.put(k, 1L);
-							}
-						}
-						lastUseless = false;
-					} else if (!lastUseless && k > 0) {
-						k <<= 5;
-						k &= N_MASK;
-						lastUseless = true;
-						if (++l >= NGramCount.N) {
-							if (h.containsKey(k)) {
-								h.put(k, h.get(k) + 1);
-							} else {
-								h.put(k, 1L);
-							}
-						}
-					} else {
-						// do nothing
-					}
-				}
+				scanner.scan(value.getBytes(), 0, length, n, sink);
 				if(h.size() > (1 << 19)) {
 					cleanup(context);
 					setup(context);
@@ -92,7 +71,7 @@ public class NGramCountMapperHashMap<KEY> extends Mapper<KEY, Text, NGramWritabl
 	protected void cleanup(Context context) throws IOException, InterruptedException {
 		for (Map.Entry<Long, Long> entry: h.entrySet()) {
 			if (entry.getValue() > 0) {
-				outKey.set(entry.getKey());
+				outKey.set(entry.getKey(), n);
 				outVal.set(entry.getValue());
 				context.write(outKey, outVal);
 			}
@@ -23,16 +23,27 @@ public class NGramCountMapperInt2LongHashMap<KEY> extends Mapper<KEY, Text, NGra
 	private NGramWritable outKey = new NGramWritable();
 	private LongWritable outVal = new LongWritable(1);
 
-	private static final int BITS_PER_CHAR = 5;
-	private static final int MASK = (1 << (BITS_PER_CHAR)) - 1;
-	private static final int NUM_ENTRIES = (1 << (BITS_PER_CHAR * NGramCount.N));
-	private static final int N_MASK = NUM_ENTRIES - 1;
+	private int n;
+	private NGramScanner scanner;
 
 	private Int2LongOpenHashMap h = new Int2LongOpenHashMap(1 << 20);
 
+	// ~ The window holds at most maxIntOrder() characters, so it fits the int
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) {
+			h.add((int) k, 1L);
+		}
+	};
+
 	// private long[] h;
 
 	protected void setup(Context context) throws IOException, InterruptedException {
+		n = NGramCount.getOrder(context.getConfiguration());
+		Alphabet alphabet = Alphabet.get(context.getConfiguration());
+		if (n > alphabet.maxIntOrder()) {
+			throw new IllegalArgumentException("Order " + n + " does not fit an int key");
+		}
+		scanner = new NGramScanner(n, alphabet);
 		// h = new long[NUM_ENTRIES];
 		h.clear();
 	}
@@ -42,43 +53,12 @@ public class NGramCountMapperInt2LongHashMap<KEY> extends Mapper<KEY, Text, NGra
 
 		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
 
-		boolean lastUseless = false;
-
 		try {
-			byte[] bytes = value.getBytes();
-			if (bytes.length < NGramCount.N) {
+			int length = value.getLength();
+			if (length < n) {
 				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
 			} else {
-				int k = 0;
-				int l = 0;
-				for (int i = 0; i < bytes.length - NGramCount.N; i++) {
-					if (ASCII.isAlpha(bytes[i])) {
-						k <<= 5;
-						k |= (MASK & bytes[i]);
-						k &= N_MASK;
-						if (++l >= NGramCount.N) {
-							if (h.containsKey(k)) {
-								h.put(k, h.get(k) + 1);
-							} else {
-								h.put(k, 1L);
-							}
-						}
-						lastUseless = false;
-					} else if (!lastUseless && k > 0) {
-						k <<= 5;
-						k &= N_MASK;
-						lastUseless = true;
-						if (++l >= NGramCount.N) {
-							if (h.containsKey(k)) {
-								h.put(k, h.get(k) + 1);
-							} else {
-								h.put(k, 1L);
-							}
-						}
-					} else {
-						// do nothing
-					}
-				}
+				scanner.scan(value.getBytes(), 0, length, n, sink);
 				if(h.size() > (1 << 19)) {
 					cleanup(context);
 					setup(context);
@@ -96,7 +76,7 @@ public class NGramCountMapperInt2LongHashMap<KEY> extends Mapper<KEY, Text, NGra
 		while(it.hasNext()) {
 			e = it.next();
 			if(e.getLongValue() > 0) {
-				outKey.set(e.getIntKey());
+				outKey.set(e.getIntKey(), n);
 				outVal.set(e.getLongValue());
 				context.write(outKey, outVal);					
 			}
@@ -1,9 +1,5 @@
 package ngramcount;
 
-import it.unimi.dsi.fastutil.longs.Long2LongMap.Entry;
-import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectIterator;
-
 import java.io.IOException;
 
 import org.apache.hadoop.io.LongWritable;
@@ -13,28 +9,36 @@ import org.apache.hadoop.mapreduce.Mapper;
 
 /**
  * Perform a simple word count mapping on text data from the Common Crawl
- * corpus.
+ * corpus. Counts are aggregated in a {@link SpillableLong2LongOpenHashMap} of
+ * {@link NGramCount#CONF_SPILL_SIZE} entries, so each distinct n-gram is
+ * emitted once per mapper however often the table fills up.
  */
 public class NGramCountMapperLong2LongHashMap<KEY> extends Mapper<KEY, Text, NGramWritable, LongWritable> {
 	protected static enum MAPPERCOUNTER {
-		RECORDS_IN, EMPTY_PAGE_TEXT, EXCEPTIONS
+		RECORDS_IN, EMPTY_PAGE_TEXT, EXCEPTIONS, SPILLS
 	}
 
 	private NGramWritable outKey = new NGramWritable();
 	private LongWritable outVal = new LongWritable(1);
 
-	private static final long BITS_PER_CHAR = 5L;
-	private static final long MASK = (1 << (BITS_PER_CHAR)) - 1;
-	private static final long NUM_ENTRIES = (1L << (BITS_PER_CHAR * NGramCount.N));
-	private static final long N_MASK = NUM_ENTRIES - 1;
+	private int n;
+	private long tag;
+	private NGramScanner scanner;
 
-	private Long2LongOpenHashMap h = new Long2LongOpenHashMap(1 << 24);
+	private SpillableLong2LongOpenHashMap h;
 
-	// private long[] h;
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) throws IOException {
+			h.increment(tag | k);
+		}
+	};
 
 	protected void setup(Context context) throws IOException, InterruptedException {
-		// h = new long[NUM_ENTRIES];
-		h.clear();
+		n = NGramCount.getOrder(context.getConfiguration());
+		scanner = new NGramScanner(n, Alphabet.get(context.getConfiguration()));
+		tag = (long) n << NGramWritable.ORDER_SHIFT;
+		h = new SpillableLong2LongOpenHashMap(NGramCount.getSpillSize(context.getConfiguration()),
+				context.getConfiguration());
 	}
 
 	@Override
@@ -42,48 +46,16 @@ public class NGramCountMapperLong2LongHashMap<KEY> extends Mapper<KEY, Text, NGr
 
 		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
 
-		boolean lastUseless = false;
-
 		try {
-			byte[] bytes = value.getBytes();
-			if (bytes.length < NGramCount.N) {
+			int length = value.getLength();
+			if (length < n) {
 				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
 			} else {
-				long k = 0L;
-				int l = 0;
-				for (int i = 0; i < bytes.length - NGramCount.N; i++) {
-					if (ASCII.isAlpha(bytes[i])) {
-						k <<= 5;
-						k |= (MASK & bytes[i]);
-						k &= N_MASK;
-						if (++l >= NGramCount.N) {
-							if (h.containsKey(k)) {
-								h.put(k, h.get(k) + 1);
-							} else {
-								h.put(k, 1L);
-							}
-						}
-						lastUseless = false;
-					} else if (!lastUseless && k > 0) {
-						k <<= 5;
-						k &= N_MASK;
-						lastUseless = true;
-						if (++l >= NGramCount.N) {
-							if (h.containsKey(k)) {
-								h.put(k, h.get(k) + 1);
-							} else {
-								h.put(k, 1L);
-							}
-						}
-					} else {
-						// do nothing
-					}
-				}
-				if(h.size() > (1 << 23)) {
-					cleanup(context);
-					setup(context);
-				}
+				scanner.scan(value.getBytes(), 0, length, n, sink);
 			}
+		} catch (IOException ex) {
+			// ~ A failed spill; fail the attempt rather than count on with a partial table
+			throw ex;
 		} catch (Exception ex) {
 			NGramCount.LOG.error("Caught Exception", ex);
 			context.getCounter(MAPPERCOUNTER.EXCEPTIONS).increment(1);
@@ -91,23 +63,7 @@ public class NGramCountMapperLong2LongHashMap<KEY> extends Mapper<KEY, Text, NGr
 	}
 
 	protected void cleanup(Context context) throws IOException, InterruptedException {
-		ObjectIterator<Entry> it = h.long2LongEntrySet().fastIterator();
-		Entry e;
-		long x = 0;
-		long y = 0;
-		while(it.hasNext()) {
-			e = it.next();
-			if(e.getLongValue() > 0) {
-				x++;
-				if(e.getLongValue() > 1) {
-					y++;
-				}
-				outKey.set(e.getLongKey());
-				outVal.set(e.getLongValue());
-				context.write(outKey, outVal);					
-			}
-
-		}
-		System.out.println("Aantal keys: " + x + ", aantal groter dan 1: " + y);
+		context.getCounter(MAPPERCOUNTER.SPILLS).increment(h.spills());
+		h.drain(context, outKey, outVal);
 	}
 }
\ No newline at end of file
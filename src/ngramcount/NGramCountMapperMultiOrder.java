@@ -0,0 +1,88 @@
+package ngramcount;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+
+/**
+ * Counts the n-grams of every order from {@link NGramCount#CONF_MIN_ORDER} up
+ * to {@link NGramCount#CONF_ORDER} in a single pass. The rolling window is
+ * slid once; each of its suffixes is an n-gram of a lower order, so all orders
+ * are read off the same register and told apart by the order tag of the key.
+ */
+public class NGramCountMapperMultiOrder<KEY> extends Mapper<KEY, Text, NGramWritable, LongWritable> {
+	protected static enum MAPPERCOUNTER {
+		RECORDS_IN, EMPTY_PAGE_TEXT, EXCEPTIONS, SPILLS
+	}
+
+	private NGramWritable outKey = new NGramWritable();
+	private LongWritable outVal = new LongWritable(1);
+
+	private int n;
+	private int minOrder;
+	private NGramScanner scanner;
+
+	// ~ Per order: the order tag and the mask selecting that suffix of the window
+	private long[] tags;
+	private long[] masks;
+
+	private SpillableLong2LongOpenHashMap h;
+
+	/**
+	 * Counts every suffix of the window <code>k</code> that is complete after
+	 * <code>l</code> characters.
+	 */
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) throws IOException {
+			int max = l < n ? l : n;
+			for (int o = minOrder; o <= max; o++) {
+				h.increment(tags[o] | (k & masks[o]));
+			}
+		}
+	};
+
+	protected void setup(Context context) throws IOException, InterruptedException {
+		n = NGramCount.getOrder(context.getConfiguration());
+		minOrder = NGramCount.getMinOrder(context.getConfiguration());
+		Alphabet alphabet = Alphabet.get(context.getConfiguration());
+		scanner = new NGramScanner(n, alphabet);
+		int bitsPerChar = alphabet.bitsPerChar();
+		tags = new long[n + 1];
+		masks = new long[n + 1];
+		for (int o = minOrder; o <= n; o++) {
+			tags[o] = (long) o << NGramWritable.ORDER_SHIFT;
+			masks[o] = (1L << (bitsPerChar * o)) - 1L;
+		}
+		h = new SpillableLong2LongOpenHashMap(NGramCount.getSpillSize(context.getConfiguration()),
+				context.getConfiguration());
+	}
+
+	@Override
+	public void map(KEY key, Text value, Context context) throws IOException {
+
+		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
+
+		try {
+			int length = value.getLength();
+			if (length < minOrder) {
+				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
+			} else {
+				scanner.scan(value.getBytes(), 0, length, minOrder, sink);
+			}
+		} catch (IOException ex) {
+			// ~ A failed spill; fail the attempt rather than count on with a partial table
+			throw ex;
+		} catch (Exception ex) {
+			NGramCount.LOG.error("Caught Exception", ex);
+			context.getCounter(MAPPERCOUNTER.EXCEPTIONS).increment(1);
+		}
+	}
+
+	protected void cleanup(Context context) throws IOException, InterruptedException {
+		context.getCounter(MAPPERCOUNTER.SPILLS).increment(h.spills());
+		h.drain(context, outKey, outVal);
+	}
+}
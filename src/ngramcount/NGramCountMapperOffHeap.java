@@ -0,0 +1,78 @@
+package ngramcount;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap.Entry;
+import it.unimi.dsi.fastutil.longs.Long2LongOffHeapHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+
+/**
+ * Counts n-grams in a {@link Long2LongOffHeapHashMap}, whose table lives in
+ * native memory. The heap, and with it the garbage collection pauses, stays
+ * small however many distinct n-grams a split holds, so the table is never
+ * spilled; size the task's memory limit rather than its heap for it.
+ */
+public class NGramCountMapperOffHeap<KEY> extends Mapper<KEY, Text, NGramWritable, LongWritable> {
+	protected static enum MAPPERCOUNTER {
+		RECORDS_IN, EMPTY_PAGE_TEXT, EXCEPTIONS
+	}
+
+	private NGramWritable outKey = new NGramWritable();
+	private LongWritable outVal = new LongWritable(1);
+
+	private int n;
+	private long tag;
+	private NGramScanner scanner;
+
+	private Long2LongOffHeapHashMap h;
+
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) {
+			h.add(tag | k, 1L);
+		}
+	};
+
+	protected void setup(Context context) throws IOException, InterruptedException {
+		n = NGramCount.getOrder(context.getConfiguration());
+		scanner = new NGramScanner(n, Alphabet.get(context.getConfiguration()));
+		tag = (long) n << NGramWritable.ORDER_SHIFT;
+		h = new Long2LongOffHeapHashMap(1 << 24);
+	}
+
+	@Override
+	public void map(KEY key, Text value, Context context) throws IOException {
+
+		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
+
+		try {
+			int length = value.getLength();
+			if (length < n) {
+				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
+			} else {
+				scanner.scan(value.getBytes(), 0, length, n, sink);
+			}
+		} catch (Exception ex) {
+			NGramCount.LOG.error("Caught Exception", ex);
+			context.getCounter(MAPPERCOUNTER.EXCEPTIONS).increment(1);
+		}
+	}
+
+	protected void cleanup(Context context) throws IOException, InterruptedException {
+		try {
+			ObjectIterator<Entry> it = h.long2LongEntrySet().fastIterator();
+			while (it.hasNext()) {
+				Entry e = it.next();
+				outKey.set(e.getLongKey());
+				outVal.set(e.getLongValue());
+				context.write(outKey, outVal);
+			}
+		} finally {
+			h.close();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package ngramcount;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+
+/**
+ * Tracks the most frequent n-grams of its input in a {@link SpaceSaving}
+ * summary of {@link NGramCount#CONF_HEAVY_HITTERS} counters, so memory stays
+ * fixed however large the split is and nothing is spilled.
+ *
+ * <p>Each mapper adds its smallest monitored count to the
+ * {@link MAPPERCOUNTER#MIN_COUNT_SUM} counter. A key a mapper does not report
+ * occurred at most that often in its split, so after merging every true count
+ * lies between <code>count - error</code> and <code>count</code> plus that sum.
+ */
+public class NGramCountMapperSpaceSaving<KEY> extends Mapper<KEY, Text, NGramWritable, ApproxCountWritable> {
+	protected static enum MAPPERCOUNTER {
+		RECORDS_IN, EMPTY_PAGE_TEXT, EXCEPTIONS, NGRAMS, MIN_COUNT_SUM
+	}
+
+	private NGramWritable outKey = new NGramWritable();
+	private ApproxCountWritable outVal = new ApproxCountWritable();
+
+	private int n;
+	private long tag;
+	private long ngrams;
+	private NGramScanner scanner;
+
+	private SpaceSaving h;
+
+	private NGramScanner.Sink sink = new NGramScanner.Sink() {
+		public void accept(long k, int l) {
+			h.offer(tag | k);
+			ngrams++;
+		}
+	};
+
+	protected void setup(Context context) throws IOException, InterruptedException {
+		n = NGramCount.getOrder(context.getConfiguration());
+		scanner = new NGramScanner(n, Alphabet.get(context.getConfiguration()));
+		tag = (long) n << NGramWritable.ORDER_SHIFT;
+		h = new SpaceSaving(NGramCount.getHeavyHitters(context.getConfiguration()));
+	}
+
+	@Override
+	public void map(KEY key, Text value, Context context) throws IOException {
+
+		context.getCounter(MAPPERCOUNTER.RECORDS_IN).increment(1);
+
+		try {
+			int length = value.getLength();
+			if (length < n) {
+				context.getCounter(MAPPERCOUNTER.EMPTY_PAGE_TEXT).increment(1);
+			} else {
+				scanner.scan(value.getBytes(), 0, length, n, sink);
+			}
+		} catch (Exception ex) {
+			NGramCount.LOG.error("Caught Exception", ex);
+			context.getCounter(MAPPERCOUNTER.EXCEPTIONS).increment(1);
+		}
+	}
+
+	protected void cleanup(Context context) throws IOException, InterruptedException {
+		context.getCounter(MAPPERCOUNTER.NGRAMS).increment(ngrams);
+		context.getCounter(MAPPERCOUNTER.MIN_COUNT_SUM).increment(h.minCount());
+		for (int i = 0; i < h.size(); i++) {
+			outKey.set(h.key(i));
+			outVal.set(h.count(i), h.error(i));
+			context.write(outKey, outVal);
+		}
+	}
+}
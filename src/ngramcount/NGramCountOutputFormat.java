@@ -0,0 +1,36 @@
+package ngramcount;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+
+/**
+ * Writes the sorted reducer output as an {@link NGramCountFile}, skipping the
+ * text rendering of every key and count.
+ */
+public class NGramCountOutputFormat extends FileOutputFormat<NGramWritable, LongWritable> {
+
+	@Override
+	public RecordWriter<NGramWritable, LongWritable> getRecordWriter(TaskAttemptContext context)
+			throws IOException, InterruptedException {
+		Path file = getDefaultWorkFile(context, NGramCountFile.EXTENSION);
+		final NGramCountFile.Writer writer = new NGramCountFile.Writer(file.getFileSystem(
+				context.getConfiguration()).create(file, false));
+
+		return new RecordWriter<NGramWritable, LongWritable>() {
+			@Override
+			public void write(NGramWritable key, LongWritable value) throws IOException {
+				writer.append(key.get(), value.get());
+			}
+
+			@Override
+			public void close(TaskAttemptContext context) throws IOException {
+				writer.close();
+			}
+		};
+	}
+}
@@ -0,0 +1,157 @@
+package ngramcount;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.util.ReflectionUtils;
+
+/**
+ * Partitions n-grams into key ranges, so the reducer outputs concatenate into
+ * one sorted run, and so all n-grams that differ only in their last character
+ * (the 7-character context of an 8-gram) meet on the same reducer.
+ *
+ * <p>The range boundaries are n-gram prefixes sampled from the input by
+ * {@link #writeSplitPoints(Job, int)} before the job starts, and travel in the
+ * job configuration under {@link #CONF_SPLIT_POINTS}.
+ */
+public class NGramPrefixPartitioner<VALUE> extends Partitioner<NGramWritable, VALUE> implements Configurable {
+
+	public static final String CONF_SPLIT_POINTS = "ngramcount.partition.splitpoints";
+
+
+	private static final int SAMPLE_SPLITS = 10;
+	private static final int SAMPLE_RECORDS = 100;
+	private static final int SAMPLE_KEYS = 1 << 20;
+
+	private Configuration conf;
+	private long[] splitPoints;
+	private int bitsPerChar;
+
+	/** Clears the last character, leaving the order tag and the prefix. */
+	public static long prefix(long key, int bitsPerChar) {
+		return key & -(1L << bitsPerChar);
+	}
+
+	@Override
+	public void setConf(Configuration conf) {
+		this.conf = conf;
+		splitPoints = getSplitPoints(conf);
+		bitsPerChar = Alphabet.get(conf).bitsPerChar();
+	}
+
+	@Override
+	public Configuration getConf() {
+		return conf;
+	}
+
+	@Override
+	public int getPartition(NGramWritable key, VALUE value, int numPartitions) {
+		// ~ The number of split points not above the prefix
+		long p = prefix(key.get(), bitsPerChar);
+		int lo = 0, hi = splitPoints.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (splitPoints[mid] <= p) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return Math.min(lo, numPartitions - 1);
+	}
+
+	public static long[] getSplitPoints(Configuration conf) {
+		String[] s = conf.getStrings(CONF_SPLIT_POINTS);
+		if (s == null) {
+			return new long[0];
+		}
+		long[] splitPoints = new long[s.length];
+		for (int i = 0; i < s.length; i++) {
+			splitPoints[i] = Long.parseLong(s[i]);
+		}
+		return splitPoints;
+	}
+
+	public static void setSplitPoints(Configuration conf, long[] splitPoints) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < splitPoints.length; i++) {
+			if (i > 0) {
+				s.append(',');
+			}
+			s.append(splitPoints[i]);
+		}
+		conf.set(CONF_SPLIT_POINTS, s.toString());
+	}
+
+	/**
+	 * Samples the n-grams of the job's orders from the first records of a few
+	 * evenly spaced input splits, and sets the prefixes that cut them into as
+	 * many equal parts as the job has reducers.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static void writeSplitPoints(Job job, int numReducers) throws IOException, InterruptedException {
+		Configuration conf = job.getConfiguration();
+		int n = NGramCount.getOrder(conf);
+		int minOrder = NGramCount.getMinOrder(conf);
+		LongArrayList sample = new LongArrayList();
+
+		InputFormat inputFormat;
+		try {
+			inputFormat = (InputFormat) ReflectionUtils.newInstance(job.getInputFormatClass(), conf);
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+		List<InputSplit> splits = inputFormat.getSplits(job);
+		int step = Math.max(1, splits.size() / SAMPLE_SPLITS);
+		Alphabet alphabet = Alphabet.get(conf);
+		int bits = alphabet.bitsPerChar();
+		NGramScanner scanner = new NGramScanner(n, alphabet);
+		for (int s = 0; s < splits.size() && sample.size() < SAMPLE_KEYS; s += step) {
+			TaskAttemptContext context = new TaskAttemptContext(conf, new TaskAttemptID());
+			RecordReader reader = inputFormat.createRecordReader(splits.get(s), context);
+			reader.initialize(splits.get(s), context);
+			try {
+				for (int r = 0; r < SAMPLE_RECORDS && sample.size() < SAMPLE_KEYS && reader.nextKeyValue(); r++) {
+					Text value = (Text) reader.getCurrentValue();
+					byte[] bytes = value.getBytes();
+					scanner.reset();
+					for (int i = 0; i < value.getLength(); i++) {
+						int l = scanner.length();
+						scanner.push(bytes[i]);
+						if (scanner.length() > l) {
+							// ~ Every order whose n-gram ends at this character, as in the mappers
+							for (int o = minOrder; o <= Math.min(l + 1, n); o++) {
+								long k = scanner.ngram() & ((1L << (bits * o)) - 1);
+								sample.add(prefix(((long) o << NGramWritable.ORDER_SHIFT) | k, bits));
+							}
+						}
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		}
+
+		long[] keys = sample.toLongArray();
+		LongArrays.quickSort(keys);
+		long[] splitPoints = new long[keys.length == 0 ? 0 : numReducers - 1];
+		for (int i = 0; i < splitPoints.length; i++) {
+			splitPoints[i] = keys[(int) ((long) (i + 1) * keys.length / numReducers)];
+		}
+		NGramCount.LOG.info("sampled " + keys.length + " n-grams for " + numReducers + " key ranges");
+		setSplitPoints(conf, splitPoints);
+	}
+}
@@ -0,0 +1,125 @@
+package ngramcount;
+
+import java.io.IOException;
+
+/**
+ * The rolling window of the mappers, fed one byte at a time so it can be
+ * driven from a Text buffer, a memory-mapped file or anything else.
+ *
+ * <p>Bytes are turned into codes by an {@link Alphabet}; any run of separators
+ * becomes a single one, separators before the first character of a record are
+ * dropped, and skipped bytes leave the window alone. All of that is looked up
+ * in a {@link TransitionTable}, so pushing a byte does not branch.
+ *
+ * <p>Without collapsing, as charCount and {@link NGramCountMapperDirect} have
+ * always counted, only spaces are separators, each one is kept, and all other
+ * bytes outside the alphabet are skipped.
+ *
+ * <p>{@link #scan(byte[], int, int, int, Sink)} runs a whole record, given as a
+ * range of a buffer such as the one of a reused Text, without allocating.
+ */
+public class NGramScanner {
+
+	/** Receives the windows of {@link NGramScanner#scan(byte[], int, int, int, Sink)}. */
+	public interface Sink {
+		/**
+		 * Called with the packed window and the number of characters shifted
+		 * in since the start of the record; only the lowest order characters
+		 * of the window are valid when that is below the order.
+		 */
+		void accept(long ngram, int length) throws IOException, InterruptedException;
+	}
+
+	private final Alphabet alphabet;
+	private final char[] transitions;
+	private final int bitsPerChar;
+
+	private final int n;
+	private final long N_MASK;
+
+	private long k;
+	private int l;
+	private int state = TransitionTable.START;
+
+	public NGramScanner(int n, Alphabet alphabet) {
+		this(n, alphabet, true);
+	}
+
+	public NGramScanner(int n, Alphabet alphabet, boolean collapse) {
+		if (n > alphabet.maxOrder()) {
+			throw new IllegalArgumentException("Order " + n + " does not fit a long key");
+		}
+		this.alphabet = alphabet;
+		this.transitions = collapse ? TransitionTable.of(alphabet) : TransitionTable.literal(alphabet);
+		this.bitsPerChar = alphabet.bitsPerChar();
+		this.n = n;
+		N_MASK = (1L << (bitsPerChar * n)) - 1L;
+	}
+
+	public int order() {
+		return n;
+	}
+
+	public Alphabet alphabet() {
+		return alphabet;
+	}
+
+	/** Starts a new record; no n-gram spans two records. */
+	public void reset() {
+		k = 0L;
+		l = 0;
+		state = TransitionTable.START;
+	}
+
+	/**
+	 * Shifts <code>b</code> into the window. Returns true if the window then
+	 * holds a new complete n-gram, available from {@link #ngram()}.
+	 */
+	public boolean push(byte b) {
+		int t = transitions[state | (b & 0xFF)];
+		int advance = t >>> TransitionTable.ADVANCE_SHIFT;
+		// ~ A byte that does not advance has code 0 and shifts by 0, leaving the window as it is
+		k = ((k << (bitsPerChar * advance)) | (t & TransitionTable.CODE_MASK)) & N_MASK;
+		l += advance;
+		state = t & TransitionTable.STATE_MASK;
+		return advance != 0 && l >= n;
+	}
+
+	/**
+	 * Scans <code>bytes[offset, offset + length)</code> as one record, handing
+	 * every window of at least <code>min</code> characters to the sink: with
+	 * <code>min</code> equal to the order, every n-gram.
+	 */
+	public void scan(byte[] bytes, int offset, int length, int min, Sink sink) throws IOException,
+			InterruptedException {
+		final char[] transitions = this.transitions;
+		final int bitsPerChar = this.bitsPerChar;
+		final long N_MASK = this.N_MASK;
+		long k = 0L;
+		int l = 0;
+		int state = TransitionTable.START;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			int t = transitions[state | (bytes[i] & 0xFF)];
+			int advance = t >>> TransitionTable.ADVANCE_SHIFT;
+			k = ((k << (bitsPerChar * advance)) | (t & TransitionTable.CODE_MASK)) & N_MASK;
+			l += advance;
+			state = t & TransitionTable.STATE_MASK;
+			if (advance != 0 && l >= min) {
+				sink.accept(k, l);
+			}
+		}
+		this.k = k;
+		this.l = l;
+		this.state = state;
+	}
+
+	/** Returns the number of characters shifted in since the last reset. */
+	public int length() {
+		return l;
+	}
+
+	/** Returns the packed characters of the current n-gram, without order tag. */
+	public long ngram() {
+		return k;
+	}
+}
@@ -1,8 +1,35 @@
 package ngramcount;
 
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.WritableComparator;
 
-public class NGramWritable extends LongWritable {
+/**
+ * An n-gram packed into a long, {@link Alphabet#bitsPerChar()} bits per
+ * character. The order of the n-gram is stored in the top 4 bits, so keys of
+ * different orders can share a single job output.
+ *
+ * <p>Keys sort as signed longs, like LongWritable and {@link NGramCountFile}.
+ * The alphabet only matters to {@link #toString()}; it is taken from the job
+ * configuration when Hadoop creates the key, and is the default one otherwise.
+ */
+public class NGramWritable extends LongWritable implements Configurable {
+
+	/** Bits per character of the default alphabet. */
+	public static final int BITS_PER_CHAR = 5;
+
+	static final int ORDER_SHIFT = 60;
+	static final long NGRAM_MASK = (1L << ORDER_SHIFT) - 1;
+
+	/** Largest order whose characters fit in an int, with the default alphabet. */
+	public static final int MAX_INT_ORDER = 32 / BITS_PER_CHAR;
+
+	/** Largest order whose characters fit in a long next to the order tag, with the default alphabet. */
+	public static final int MAX_ORDER = ORDER_SHIFT / BITS_PER_CHAR;
+
+	private Configuration conf;
+	private Alphabet alphabet = Alphabet.DEFAULT;
 
 	public NGramWritable() {
 	}
@@ -11,20 +38,69 @@ public class NGramWritable extends LongWritable {
 		super(value);
 	}
 
+	public NGramWritable(long ngram, int order) {
+		set(ngram, order);
+	}
+
+	public void set(long ngram, int order) {
+		set(((long) order << ORDER_SHIFT) | ngram);
+	}
+
+	/**
+	 * Returns the order of this n-gram. Untagged keys, as written before the
+	 * order became configurable, are taken to be of the default order.
+	 */
+	public int getOrder() {
+		int order = (int) (get() >>> ORDER_SHIFT);
+		return order == 0 ? NGramCount.DEFAULT_ORDER : order;
+	}
+
+	/** Returns the packed characters without the order tag. */
+	public long getNGram() {
+		return get() & NGRAM_MASK;
+	}
+
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+
+	public void setAlphabet(Alphabet alphabet) {
+		this.alphabet = alphabet;
+	}
+
+	@Override
+	public void setConf(Configuration conf) {
+		this.conf = conf;
+		alphabet = Alphabet.get(conf);
+	}
+
+	@Override
+	public Configuration getConf() {
+		return conf;
+	}
+
 	public String toString() {
-		byte[] bytes = new byte[NGramCount.N];
-		long k = get();
-		for(int j = NGramCount.N-1; j >= 0; j--) {
-			bytes[j] = (byte) (k & 0x1f);
-			if(bytes[j] > 0) {
-				bytes[j] |= 0x60;
-			} else {
-				bytes[j] |= 0x20;
-			}
-			k >>= 5;
-		}
+		int order = getOrder();
+		byte[] bytes = new byte[order];
+		alphabet.decode(getNGram(), bytes, 0, order);
 		return new String(bytes);
 	}
 
-	
+	/** Compares the serialized longs, without deserializing the keys. */
+	public static class Comparator extends WritableComparator {
+		public Comparator() {
+			super(NGramWritable.class);
+		}
+
+		public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+			long a = readLong(b1, s1);
+			long b = readLong(b2, s2);
+			return a < b ? -1 : (a == b ? 0 : 1);
+		}
+	}
+
+	static {
+		// LongWritable's comparator is only registered for LongWritable itself
+		WritableComparator.define(NGramWritable.class, new Comparator());
+	}
 }
@@ -0,0 +1,97 @@
+package ngramcount;
+
+import it.unimi.dsi.fastutil.BigArrays;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+
+/**
+ * A directly indexed array of counters that can hold more than 2^31 of them.
+ *
+ * <p>Counters are 16-bit chars in {@link BigArrays} segments, allocated the
+ * first time one of their counters is touched, so ranges of indexes that never
+ * occur (such as n-grams starting with the unused codes 27-31) cost nothing. A
+ * counter that reaches {@link #SATURATED} stays there, and the rest of its
+ * count goes to an overflow map; only the few very frequent n-grams ever get
+ * there.
+ */
+public class SaturatingCounterBigArray {
+
+	public static final int SATURATED = Character.MAX_VALUE;
+
+	private final long length;
+	private final char[][] segments;
+	private final Long2LongOpenHashMap overflow = new Long2LongOpenHashMap();
+
+	public SaturatingCounterBigArray(long length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Invalid length: " + length);
+		}
+		this.length = length;
+		segments = new char[(int) ((length + BigArrays.SEGMENT_MASK) >>> BigArrays.SEGMENT_SHIFT)][];
+	}
+
+	public long length() {
+		return length;
+	}
+
+	public void increment(long index) {
+		char[] segment = segments[BigArrays.segment(index)];
+		if (segment == null) {
+			segment = allocate(BigArrays.segment(index));
+		}
+		int d = BigArrays.displacement(index);
+		if (segment[d] != SATURATED) {
+			segment[d]++;
+		} else {
+			overflow.add(index, 1L);
+		}
+	}
+
+	private char[] allocate(int s) {
+		int size = (int) Math.min(BigArrays.SEGMENT_SIZE, length - BigArrays.start(s));
+		return segments[s] = new char[size];
+	}
+
+	public long get(long index) {
+		char[] segment = segments[BigArrays.segment(index)];
+		if (segment == null) {
+			return 0;
+		}
+		int c = segment[BigArrays.displacement(index)];
+		return c != SATURATED ? c : c + overflow.get(index);
+	}
+
+	/**
+	 * Returns the first index from <code>from</code> on with a nonzero count,
+	 * or -1 if there is none.
+	 */
+	public long next(long from) {
+		for (int s = BigArrays.segment(from); s < segments.length; s++) {
+			char[] segment = segments[s];
+			if (segment != null) {
+				int d = s == BigArrays.segment(from) ? BigArrays.displacement(from) : 0;
+				for (; d < segment.length; d++) {
+					if (segment[d] != 0) {
+						return BigArrays.index(s, d);
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	/** Returns the number of bytes allocated to counters so far. */
+	public long allocated() {
+		long bytes = 0;
+		for (char[] segment : segments) {
+			if (segment != null) {
+				bytes += 2L * segment.length;
+			}
+		}
+		return bytes;
+	}
+
+	/** Returns the number of counters that have saturated. */
+	public int saturated() {
+		return overflow.size();
+	}
+}
@@ -0,0 +1,163 @@
+package ngramcount;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.util.ReflectionUtils;
+
+/*
+* Times the loop of the mappers before there was an alphabet, the same loop over the code table of an alphabet,
+* and NGramScanner driven by its TransitionTable, and checks that the three agree.
+*
+* Usage: java ngramcount.ScannerBenchmark [ order [ sequencefile ] ]
+*/
+public class ScannerBenchmark {
+
+	// ~ The three ways of counting the n-grams of a buffer timed by main()
+
+	/** The loop of the mappers before there was an alphabet. */
+	private static long countASCII(byte[] bytes, int n) {
+		long N_MASK = (1L << (5 * n)) - 1L;
+		long sum = 0;
+		long k = 0;
+		int l = 0;
+		boolean lastUseless = false;
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] == '\n') {
+				k = 0;
+				l = 0;
+				lastUseless = false;
+			} else if (ASCII.isAlpha(bytes[i])) {
+				k <<= 5;
+				k |= (0x1F & bytes[i]);
+				k &= N_MASK;
+				lastUseless = false;
+				if (++l >= n) {
+					sum += k;
+				}
+			} else if (!lastUseless && k > 0) {
+				k <<= 5;
+				k &= N_MASK;
+				lastUseless = true;
+				if (++l >= n) {
+					sum += k;
+				}
+			}
+		}
+		return sum;
+	}
+
+	/** The same loop over the code table of an alphabet. */
+	private static long countCodes(byte[] bytes, int n, Alphabet alphabet) {
+		byte[] codes = alphabet.codes();
+		int bits = alphabet.bitsPerChar();
+		long N_MASK = (1L << (bits * n)) - 1L;
+		long sum = 0;
+		long k = 0;
+		int l = 0;
+		boolean lastUseless = false;
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] == '\n') {
+				k = 0;
+				l = 0;
+				lastUseless = false;
+				continue;
+			}
+			int c = codes[bytes[i] & 0xFF];
+			if (c > 0) {
+				k = ((k << bits) | c) & N_MASK;
+				lastUseless = false;
+				if (++l >= n) {
+					sum += k;
+				}
+			} else if (c == Alphabet.SEPARATOR && !lastUseless && k > 0) {
+				k = (k << bits) & N_MASK;
+				lastUseless = true;
+				if (++l >= n) {
+					sum += k;
+				}
+			}
+		}
+		return sum;
+	}
+
+	/** The scanner, driven by the transition table. */
+	private static long countScanner(byte[] bytes, int n, Alphabet alphabet) {
+		NGramScanner scanner = new NGramScanner(n, alphabet);
+		long sum = 0;
+		scanner.reset();
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] == '\n') {
+				scanner.reset();
+			} else if (scanner.push(bytes[i])) {
+				sum += scanner.ngram();
+			}
+		}
+		return sum;
+	}
+
+	private static byte[] load(String file) throws IOException {
+		Configuration conf = new Configuration();
+		SequenceFile.Reader reader = new SequenceFile.Reader(FileSystem.getLocal(conf), new Path(file), conf);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			Writable key = (Writable) ReflectionUtils.newInstance(reader.getKeyClass(), conf);
+			Text value = new Text();
+			while (reader.next(key, value)) {
+				out.write(value.getBytes(), 0, value.getLength());
+				out.write('\n');
+			}
+		} finally {
+			reader.close();
+		}
+		return out.toByteArray();
+	}
+
+	/** Random words of lower and upper case letters, with punctuation and some bytes above 0x7F. */
+	private static byte[] generate(int size) {
+		Random r = new Random(0);
+		byte[] bytes = new byte[size];
+		for (int i = 0; i < size; i++) {
+			int x = r.nextInt(100);
+			bytes[i] = (byte) (x < 70 ? 'a' + r.nextInt(26) : x < 75 ? 'A' + r.nextInt(26) : x < 90 ? ' '
+					: x < 97 ? ".,;:!?-".charAt(r.nextInt(7)) : x < 99 ? 0x80 + r.nextInt(0x80) : '\n');
+		}
+		return bytes;
+	}
+
+	/**
+	 * Times the three loops over the records of a SequenceFile of Text values,
+	 * or over 64MB of random text.
+	 *
+	 * <pre>java ngramcount.ScannerBenchmark [ order [ sequencefile ] ]</pre>
+	 */
+	public static void main(String[] args) throws IOException {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : NGramCount.DEFAULT_ORDER;
+		byte[] bytes = args.length > 1 ? load(args[1]) : generate(64 << 20);
+		Alphabet alphabet = Alphabet.DEFAULT;
+
+		long ascii = countASCII(bytes, n);
+		if (countCodes(bytes, n, alphabet) != ascii || countScanner(bytes, n, alphabet) != ascii) {
+			throw new AssertionError("The loops disagree");
+		}
+		for (int round = 0; round < 5; round++) {
+			long t0 = System.nanoTime();
+			long a = countASCII(bytes, n);
+			long t1 = System.nanoTime();
+			long c = countCodes(bytes, n, alphabet);
+			long t2 = System.nanoTime();
+			long s = countScanner(bytes, n, alphabet);
+			long t3 = System.nanoTime();
+			System.out.printf("ASCII.isAlpha %6.2f ns/byte, code table %6.2f ns/byte, transition table %6.2f ns/byte%s%n",
+					(t1 - t0) / (double) bytes.length, (t2 - t1) / (double) bytes.length, (t3 - t2)
+							/ (double) bytes.length, a == c && c == s ? "" : " (mismatch)");
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package ngramcount;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+
+/**
+ * The Space-Saving heavy-hitters summary of Metwally, Agrawal and El Abbadi,
+ * keeping at most <code>capacity</code> counters in fixed memory.
+ *
+ * <p>Counters live in a min-heap on their count; an index maps every monitored
+ * key to its heap position. An unmonitored key replaces the key with the
+ * smallest count <i>m</i>, inheriting <i>m</i> as its error. Every estimate is
+ * then at least the true count and at most <code>error</code> above it, and
+ * every key that occurs more than <i>n</i>/<code>capacity</code> times in a
+ * stream of length <i>n</i> is monitored.
+ */
+public class SpaceSaving {
+
+	private final int capacity;
+	private final long[] keys;
+	private final long[] counts;
+	private final long[] errors;
+	private final Long2LongOpenHashMap index;
+	private int size;
+
+	public SpaceSaving(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		this.capacity = capacity;
+		keys = new long[capacity];
+		counts = new long[capacity];
+		errors = new long[capacity];
+		index = new Long2LongOpenHashMap(capacity);
+		index.defaultReturnValue(-1);
+	}
+
+	/** Counts one occurrence of <code>k</code>. */
+	public void offer(long k) {
+		int pos = (int) index.get(k);
+		if (pos >= 0) {
+			counts[pos]++;
+			downHeap(pos);
+		} else if (size < capacity) {
+			pos = size++;
+			keys[pos] = k;
+			counts[pos] = 1;
+			errors[pos] = 0;
+			index.put(k, pos);
+			upHeap(pos);
+		} else {
+			// ~ Evict the minimum, which sits at the root
+			index.remove(keys[0]);
+			keys[0] = k;
+			errors[0] = counts[0];
+			counts[0]++;
+			index.put(k, 0);
+			downHeap(0);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long key(int i) {
+		return keys[i];
+	}
+
+	/** Returns the estimated count of the <code>i</code>-th counter; never below the true count. */
+	public long count(int i) {
+		return counts[i];
+	}
+
+	/** Returns the maximum overestimation of the <code>i</code>-th counter. */
+	public long error(int i) {
+		return errors[i];
+	}
+
+	/**
+	 * Returns the smallest monitored count once the summary is full, and zero
+	 * before. No unmonitored key occurred more often than this.
+	 */
+	public long minCount() {
+		return size < capacity ? 0 : counts[0];
+	}
+
+	public void clear() {
+		size = 0;
+		index.clear();
+	}
+
+	private void upHeap(int i) {
+		final long k = keys[i], c = counts[i], e = errors[i];
+		while (i != 0) {
+			final int parent = (i - 1) >>> 1;
+			if (counts[parent] <= c) {
+				break;
+			}
+			move(parent, i);
+			i = parent;
+		}
+		place(i, k, c, e);
+	}
+
+	private void downHeap(int i) {
+		final long k = keys[i], c = counts[i], e = errors[i];
+		int child;
+		while ((child = 2 * i + 1) < size) {
+			if (child + 1 < size && counts[child + 1] < counts[child]) {
+				child++;
+			}
+			if (c <= counts[child]) {
+				break;
+			}
+			move(child, i);
+			i = child;
+		}
+		place(i, k, c, e);
+	}
+
+	private void move(int from, int to) {
+		keys[to] = keys[from];
+		counts[to] = counts[from];
+		errors[to] = errors[from];
+		index.put(keys[to], to);
+	}
+
+	private void place(int i, long k, long c, long e) {
+		keys[i] = k;
+		counts[i] = c;
+		errors[i] = e;
+		index.put(k, i);
+	}
+}
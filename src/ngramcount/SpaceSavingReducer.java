@@ -0,0 +1,27 @@
+package ngramcount;
+
+import java.io.IOException;
+
+import org.apache.hadoop.mapreduce.Reducer;
+
+/**
+ * Merges {@link SpaceSaving} summaries by summing the estimated counts and the
+ * errors of each key. Summing is associative, so this also serves as the
+ * combiner.
+ */
+public class SpaceSavingReducer<KEY> extends Reducer<KEY, ApproxCountWritable, KEY, ApproxCountWritable> {
+
+	private ApproxCountWritable result = new ApproxCountWritable();
+
+	public void reduce(KEY key, Iterable<ApproxCountWritable> values, Context context) throws IOException,
+			InterruptedException {
+		long count = 0;
+		long error = 0;
+		for (ApproxCountWritable val : values) {
+			count += val.getCount();
+			error += val.getError();
+		}
+		result.set(count, error);
+		context.write(key, result);
+	}
+}
@@ -0,0 +1,232 @@
+package ngramcount;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+/**
+ * A counting table of bounded size for in-mapper aggregation. Whenever it
+ * holds more than <code>maxSize</code> keys, its entries are sorted with
+ * {@link LongArrays#radixSort(long[], long[], int, int)} in place, in the
+ * backing arrays of the table, and written to a run file in the task's local
+ * directories. {@link #drain} merges all runs with what is left in memory, so
+ * every distinct key leaves the mapper exactly once.
+ */
+public class SpillableLong2LongOpenHashMap extends Long2LongOpenHashMap {
+	private static final long serialVersionUID = 0L;
+
+	private static final LocalDirAllocator LOCAL_DIRS = new LocalDirAllocator("mapred.local.dir");
+
+	private final int maxSize;
+	private final Configuration conf;
+	private final List<File> runs = new ArrayList<File>();
+
+	public SpillableLong2LongOpenHashMap(int maxSize, Configuration conf) {
+		super(maxSize + 2);
+		this.maxSize = maxSize;
+		this.conf = conf;
+	}
+
+	/** Adds one to the count of <code>k</code>, spilling if the table is full. */
+	public void increment(long k) throws IOException {
+		add(k, 1L);
+		if (size > maxSize) {
+			spill();
+		}
+	}
+
+	/** Returns the number of runs spilled so far. */
+	public int spills() {
+		return runs.size();
+	}
+
+	/**
+	 * Moves the entries to the front of the backing arrays and sorts them by
+	 * key. The hash structure is destroyed; the table must be cleared afterwards.
+	 */
+	private int sortEntries() {
+		int j = 0;
+		for (int i = 0; i < n; i++) {
+			if (used[i]) {
+				key[j] = key[i];
+				value[j] = value[i];
+				j++;
+			}
+		}
+		LongArrays.radixSort(key, value, 0, j);
+		return j;
+	}
+
+	/**
+	 * Writes the current entries, sorted, to a new run file and clears the
+	 * table. The table is cleared even if writing fails, since sorting destroys
+	 * it; the half-written run is then deleted and not merged.
+	 */
+	public void spill() throws IOException {
+		File file = new File(LOCAL_DIRS.getLocalPathForWrite("ngram-run-" + runs.size(), 16L * size, conf)
+				.toUri().getPath());
+		boolean written = false;
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+			try {
+				int entries = sortEntries();
+				out.writeInt(entries);
+				for (int i = 0; i < entries; i++) {
+					out.writeLong(key[i]);
+					out.writeLong(value[i]);
+				}
+			} finally {
+				out.close();
+			}
+			written = true;
+		} finally {
+			if (written) {
+				runs.add(file);
+			} else {
+				file.delete();
+			}
+			clear();
+		}
+	}
+
+	/**
+	 * Merges the spilled runs and the entries still in memory, writing every
+	 * distinct key once, in ascending order, with its total count. Afterwards
+	 * the table is empty and the run files are deleted.
+	 */
+	public void drain(TaskInputOutputContext<?, ?, ? super NGramWritable, ? super LongWritable> context,
+			NGramWritable outKey, LongWritable outVal) throws IOException, InterruptedException {
+		PriorityQueue<Run> queue = new PriorityQueue<Run>(runs.size() + 1);
+		try {
+			advance(queue, new MemoryRun(sortEntries()));
+			for (File file : runs) {
+				advance(queue, new FileRun(file));
+			}
+
+			while (!queue.isEmpty()) {
+				Run run = queue.poll();
+				long k = run.key;
+				long c = run.value;
+				advance(queue, run);
+				while (!queue.isEmpty() && queue.peek().key == k) {
+					run = queue.poll();
+					c += run.value;
+					advance(queue, run);
+				}
+				outKey.set(k);
+				outVal.set(c);
+				context.write(outKey, outVal);
+			}
+		} finally {
+			// ~ Runs are left in the queue only when the merge failed; close them all, keeping its exception
+			for (Run run : queue) {
+				try {
+					run.close();
+				} catch (IOException e) {
+				}
+			}
+			for (File file : runs) {
+				file.delete();
+			}
+			runs.clear();
+			clear();
+		}
+	}
+
+	/** Puts the run back in the queue if it has another entry, and closes it otherwise, or if reading fails. */
+	private static void advance(PriorityQueue<Run> queue, Run run) throws IOException {
+		boolean more = false;
+		try {
+			more = run.next();
+		} finally {
+			if (more) {
+				queue.add(run);
+			} else {
+				run.close();
+			}
+		}
+	}
+
+	/** A sorted stream of entries, ordered by its current key. */
+	private static abstract class Run implements Comparable<Run> {
+		long key;
+		long value;
+
+		abstract boolean next() throws IOException;
+
+		void close() throws IOException {
+		}
+
+		@Override
+		public int compareTo(Run o) {
+			return key < o.key ? -1 : (key == o.key ? 0 : 1);
+		}
+	}
+
+	private class MemoryRun extends Run {
+		private final int entries;
+		private int pos = 0;
+
+		MemoryRun(int entries) {
+			this.entries = entries;
+		}
+
+		@Override
+		boolean next() {
+			if (pos == entries) {
+				return false;
+			}
+			key = SpillableLong2LongOpenHashMap.this.key[pos];
+			value = SpillableLong2LongOpenHashMap.this.value[pos];
+			pos++;
+			return true;
+		}
+	}
+
+	private static class FileRun extends Run {
+		private final DataInputStream in;
+		private int remaining;
+
+		FileRun(File file) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+			try {
+				remaining = in.readInt();
+			} catch (IOException e) {
+				in.close();
+				throw e;
+			}
+		}
+
+		@Override
+		boolean next() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			remaining--;
+			key = in.readLong();
+			value = in.readLong();
+			return true;
+		}
+
+		@Override
+		void close() throws IOException {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package ngramcount;
+
+/**
+ * The state machine of {@link NGramScanner} as a precomputed table, so that
+ * feeding it a byte takes one lookup and no branches.
+ *
+ * <p>The scanner is in one of two states: {@link #KEEP}, right after a
+ * character, where a separator goes into the window, and {@link #DROP}, at the
+ * start of a record or right after a separator, where it does not. The table
+ * has an entry for every state and byte, indexed by <code>state | (b &amp;
+ * 0xFF)</code>; the states are multiples of 256 to make that an or. An entry
+ * holds the code to shift in ({@link #CODE_MASK}, zero for a separator), the
+ * next state ({@link #STATE_MASK}) and whether the window moves at all
+ * ({@link #ADVANCE}). A byte that leaves the window alone, such as a skipped
+ * byte or a separator in state DROP, has a zero code, no ADVANCE, and keeps
+ * the state.
+ *
+ * <p>Codes can take up to 7 bits, so an entry is a char rather than a byte,
+ * and the table holds 256 of them per state.
+ */
+public class TransitionTable {
+
+	public static final int KEEP = 0;
+	public static final int DROP = 1 << 8;
+
+	public static final int CODE_MASK = 0xFF;
+	public static final int STATE_MASK = DROP;
+	public static final int ADVANCE_SHIFT = 9;
+	public static final int ADVANCE = 1 << ADVANCE_SHIFT;
+
+	/** The state of the scanner at the start of a record. */
+	public static final int START = DROP;
+
+	private TransitionTable() {
+	}
+
+	/** Returns the table of the given alphabet, 512 entries. */
+	public static char[] of(Alphabet alphabet) {
+		char[] table = new char[2 * 256];
+		for (int state = KEEP; state <= DROP; state += DROP) {
+			for (int b = 0; b < 256; b++) {
+				int c = alphabet.code((byte) b);
+				int entry;
+				if (c > 0) {
+					entry = c | KEEP | ADVANCE;
+				} else if (c == Alphabet.SEPARATOR && state == KEEP) {
+					entry = DROP | ADVANCE;
+				} else {
+					entry = state;
+				}
+				table[state | b] = (char) entry;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the table that does not collapse separators: a space always goes
+	 * into the window, and every other byte outside the alphabet is skipped.
+	 */
+	public static char[] literal(Alphabet alphabet) {
+		char[] table = new char[2 * 256];
+		for (int state = KEEP; state <= DROP; state += DROP) {
+			for (int b = 0; b < 256; b++) {
+				int c = alphabet.code((byte) b);
+				int entry;
+				if (c > 0) {
+					entry = c | KEEP | ADVANCE;
+				} else if (b == ' ') {
+					entry = KEEP | ADVANCE;
+				} else {
+					entry = state;
+				}
+				table[state | b] = (char) entry;
+			}
+		}
+		return table;
+	}
+}
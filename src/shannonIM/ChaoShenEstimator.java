@@ -0,0 +1,34 @@
+/*
+ * The Chao-Shen estimate: probabilities shrunk by the Good-Turing coverage 1 - f1/t (f1 being the number of
+ * characters seen once), and every term weighted by the inverse of the chance that its character was seen at
+ * all (Horvitz-Thompson). Corrects for the characters a sparse context has not shown yet.
+ */
+package shannonIM;
+
+public class ChaoShenEstimator implements EntropyEstimator {
+	public String getName() {
+		return "chaoshen";
+	}
+
+	public double estimate(long[] counts, int length, long total) {
+		double t = (double) total;
+		long f1 = 0;
+		for (int i = 0; i < length; i++) {
+			if (counts[i] == 1) {
+				f1++;
+			}
+		}
+		// ~ Keep the coverage above zero when everything is a singleton
+		if (f1 == total) {
+			f1 = total - 1;
+		}
+		double coverage = 1.0 - f1 / t;
+
+		double h = 0.0;
+		for (int i = 0; i < length; i++) {
+			double p = coverage * counts[i] / t;
+			h -= p * Math.log(p) / (1.0 - Math.pow(1.0 - p, t));
+		}
+		return h;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * The per reducer state of an entropy job: the counts of the context being read, and the sums over all
+ * contexts read so far. Contexts come in one at a time, so only one context is ever held; its counts are
+ * kept in an array that grows to the largest alphabet seen.
+ *
+ * Besides TOTAL and the plug-in WEIGHTED SHAN SUM, which are always computed, every configured estimator
+ * (EntropyEstimators) gets its own weighted sum: sum over the contexts of t times its estimate.
+ */
+package shannonIM;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+public class ContextEntropy {
+	private final EntropyEstimator[] estimators;
+
+	// ~ The context being read
+	private long[] counts = new long[EntropyEstimators.DEFAULT_ALPHABET_SIZE];
+	private int length = 0;
+	private long t = 0L;
+
+	// ~ The sums over all contexts
+	private long total = 0L;
+	private double wss = 0.0;
+	private final double[] sums;
+
+	public ContextEntropy(Configuration conf) {
+		estimators = EntropyEstimators.get(conf);
+		sums = new double[estimators.length];
+	}
+
+	/** Adds the count of one character of the current context. */
+	public void add(long c) {
+		if (c == 0) {
+			return;
+		}
+		if (length == counts.length) {
+			long[] grown = new long[2 * length];
+			System.arraycopy(counts, 0, grown, 0, length);
+			counts = grown;
+		}
+		counts[length++] = c;
+		t += c;
+	}
+
+	/** Ends the current context; the next add() starts a new one. */
+	public void endContext() {
+		if (t == 0) {
+			return;
+		}
+		double localTotal = (double) t;
+		double weightedShan = 0.0;
+		for (int i = 0; i < length; i++) {
+			weightedShan -= counts[i] * Math.log(counts[i] / localTotal);
+		}
+		this.total += t;
+		this.wss += weightedShan;
+
+		for (int e = 0; e < estimators.length; e++) {
+			sums[e] += localTotal * estimators[e].estimate(counts, length, t);
+		}
+		length = 0;
+		t = 0L;
+	}
+
+	/** Writes the sums of this reducer; ShanMerge adds up those of all reducers. */
+	public void write(TaskInputOutputContext<?, ?, Text, DoubleWritable> context) throws IOException,
+			InterruptedException {
+		ShanMerge.write(context, total, wss);
+		for (int e = 0; e < estimators.length; e++) {
+			ShanMerge.write(context, estimators[e].getName(), total, sums[e]);
+		}
+	}
+}
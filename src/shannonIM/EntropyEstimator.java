@@ -0,0 +1,16 @@
+/*
+ * Estimates the entropy of the next character in one context from the counts of the characters seen after it.
+ * The counts come from a sorted stream, one context at a time; an estimator keeps nothing between contexts.
+ * Estimates are in natural units.
+ */
+package shannonIM;
+
+public interface EntropyEstimator {
+	/** A short name, used in the job output. */
+	String getName();
+
+	/**
+	 * Returns the entropy estimate for the nonzero counts in counts[0..length), which add up to total.
+	 */
+	double estimate(long[] counts, int length, long total);
+}
@@ -0,0 +1,49 @@
+/*
+ * Creates the entropy estimators a job is configured with. CONF_ESTIMATORS is a comma separated list of
+ * estimator names ("plugin", "millermadow", "chaoshen", "nsb"); CONF_ALPHABET_SIZE is the number of characters
+ * a context can be followed by, which NSB needs. It defaults to the number of codes of the alphabet the
+ * n-grams were counted in (ngramcount.Alphabet): 27 for the letters and the separator.
+ */
+package shannonIM;
+
+import ngramcount.Alphabet;
+
+import org.apache.hadoop.conf.Configuration;
+
+public class EntropyEstimators {
+	public static final String CONF_ESTIMATORS = "shannon.estimators";
+	public static final String CONF_ALPHABET_SIZE = "shannon.alphabet.size";
+	public static final int DEFAULT_ALPHABET_SIZE = 27;
+
+	public static EntropyEstimator get(String name, int alphabetSize) {
+		if (name.equals("plugin")) {
+			return new PluginEstimator();
+		} else if (name.equals("millermadow")) {
+			return new MillerMadowEstimator();
+		} else if (name.equals("chaoshen")) {
+			return new ChaoShenEstimator();
+		} else if (name.equals("nsb")) {
+			return new NSBEstimator(alphabetSize);
+		}
+		throw new IllegalArgumentException("Unknown estimator: " + name);
+	}
+
+	/** The configured estimators; none if CONF_ESTIMATORS is not set. */
+	public static EntropyEstimator[] get(Configuration conf) {
+		String[] names = conf.getStrings(CONF_ESTIMATORS, new String[0]);
+		int alphabetSize = conf.getInt(CONF_ALPHABET_SIZE, Alphabet.get(conf).size());
+		EntropyEstimator[] estimators = new EntropyEstimator[names.length];
+		for (int i = 0; i < names.length; i++) {
+			estimators[i] = get(names[i].trim(), alphabetSize);
+		}
+		return estimators;
+	}
+
+	public static void setEstimators(Configuration conf, String names) {
+		// ~ Fail in the driver rather than in every reducer
+		for (String name : names.split(",")) {
+			get(name.trim(), DEFAULT_ALPHABET_SIZE);
+		}
+		conf.set(CONF_ESTIMATORS, names);
+	}
+}
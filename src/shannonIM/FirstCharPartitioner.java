@@ -0,0 +1,35 @@
+/*
+ * Partitions N-grams by their first character, in order. Every prefix of every length then lives on a single
+ * reducer, which ShanCurveReducer needs; and the part files concatenate into one sorted run.
+ * At most as many reducers as the alphabet has codes (27 for letters) get any data.
+ */
+package shannonIM;
+
+import ngramcount.Alphabet;
+import ngramcount.NGramWritable;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+public class FirstCharPartitioner<VALUE> extends Partitioner<NGramWritable, VALUE> implements Configurable {
+	private Configuration conf;
+	private int bitsPerChar;
+
+	@Override
+	public void setConf(Configuration conf) {
+		this.conf = conf;
+		bitsPerChar = Alphabet.get(conf).bitsPerChar();
+	}
+
+	@Override
+	public Configuration getConf() {
+		return conf;
+	}
+
+	@Override
+	public int getPartition(NGramWritable key, VALUE value, int numPartitions) {
+		int first = (int) (key.getNGram() >>> (bitsPerChar * (key.getOrder() - 1)));
+		return (int) ((long) first * numPartitions >>> bitsPerChar);
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * The log-gamma, digamma and trigamma functions for positive arguments, as needed by NSBEstimator. Small
+ * arguments are shifted up by the recurrences until the asymptotic series are accurate to about 1e-13.
+ */
+package shannonIM;
+
+final class GammaFunctions {
+	private static final double SHIFT = 10.0;
+	private static final double HALF_LOG_TWO_PI = 0.5 * Math.log(2.0 * Math.PI);
+
+	private GammaFunctions() {
+	}
+
+	static double logGamma(double x) {
+		// ~ log Gamma(x) = log Gamma(x + k) - log(x (x + 1) ... (x + k - 1))
+		double shift = 0.0;
+		double product = 1.0;
+		while (x < SHIFT) {
+			product *= x;
+			x += 1.0;
+		}
+		if (product != 1.0) {
+			shift = Math.log(product);
+		}
+		double r = 1.0 / x;
+		double r2 = r * r;
+		double series = r * (1.0 / 12 - r2 * (1.0 / 360 - r2 * (1.0 / 1260 - r2 / 1680)));
+		return (x - 0.5) * Math.log(x) - x + HALF_LOG_TWO_PI + series - shift;
+	}
+
+	static double digamma(double x) {
+		// ~ psi(x) = psi(x + 1) - 1/x
+		double shift = 0.0;
+		while (x < SHIFT) {
+			shift += 1.0 / x;
+			x += 1.0;
+		}
+		double r2 = 1.0 / (x * x);
+		double series = r2 * (1.0 / 12 - r2 * (1.0 / 120 - r2 * (1.0 / 252 - r2 / 240)));
+		return Math.log(x) - 0.5 / x - series - shift;
+	}
+
+	static double trigamma(double x) {
+		// ~ psi'(x) = psi'(x + 1) + 1/x^2
+		double shift = 0.0;
+		while (x < SHIFT) {
+			shift += 1.0 / (x * x);
+			x += 1.0;
+		}
+		double r = 1.0 / x;
+		double r2 = r * r;
+		double series = r * (1.0 + r * (0.5 + r * (1.0 / 6 - r2 * (1.0 / 30 - r2 * (1.0 / 42 - r2 / 30)))));
+		return series + shift;
+	}
+}
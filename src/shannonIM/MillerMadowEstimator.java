@@ -0,0 +1,14 @@
+/*
+ * The plug-in estimate plus the Miller-Madow correction (m - 1) / 2t, m being the number of characters seen.
+ */
+package shannonIM;
+
+public class MillerMadowEstimator extends PluginEstimator {
+	public String getName() {
+		return "millermadow";
+	}
+
+	public double estimate(long[] counts, int length, long total) {
+		return super.estimate(counts, length, total) + (length - 1) / (2.0 * total);
+	}
+}
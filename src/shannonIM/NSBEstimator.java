@@ -0,0 +1,114 @@
+/*
+ * The NSB (Nemenman-Shafee-Bialek) estimate: the posterior mean of the entropy under a mixture of symmetric
+ * Dirichlet priors with concentration b, weighted so that the prior over the entropy itself is nearly flat.
+ * For an alphabet of K characters and N observations in a context, with counts n_i:
+ *
+ *   E[H | b] = psi(N + Kb + 1) - sum_i (n_i + b) / (N + Kb) psi(n_i + b + 1)   (all K characters)
+ *   P(b | n) ~ Gamma(Kb) / Gamma(N + Kb) prod_i Gamma(n_i + b) / Gamma(b)     (seen characters only)
+ *   prior    ~ d E[H | b, N = 0] / db = K psi'(Kb + 1) - psi'(b + 1)
+ *
+ * The integral over b is done on a grid in log b: a coarse pass finds where the posterior is, a finer pass
+ * integrates it. Characters not seen in the context count as zeros, so the alphabet size must be given.
+ */
+package shannonIM;
+
+public class NSBEstimator implements EntropyEstimator {
+	// ~ The coarse grid spans b = e^-16 .. e^12, far beyond where the posterior of any real context lies
+	private static final double LOG_B_MIN = -16.0;
+	private static final double LOG_B_MAX = 12.0;
+	private static final int COARSE = 32;
+	private static final int FINE = 48;
+
+	/** Grid points whose log posterior is this far below the maximum are left out of the fine pass. */
+	private static final double CUTOFF = 25.0;
+
+	private final int alphabetSize;
+
+	// ~ The parts of the log posterior that do not depend on the counts, for the coarse grid
+	private final double[] coarseB = new double[COARSE];
+	private final double[] coarseConstant = new double[COARSE];
+	private final double[] logPosterior = new double[COARSE];
+
+	public NSBEstimator(int alphabetSize) {
+		if (alphabetSize < 2) {
+			throw new IllegalArgumentException("Alphabet size must be at least 2: " + alphabetSize);
+		}
+		this.alphabetSize = alphabetSize;
+		for (int j = 0; j < COARSE; j++) {
+			coarseB[j] = Math.exp(LOG_B_MIN + j * (LOG_B_MAX - LOG_B_MIN) / (COARSE - 1));
+			coarseConstant[j] = constant(coarseB[j], alphabetSize);
+		}
+	}
+
+	public String getName() {
+		return "nsb";
+	}
+
+	public double estimate(long[] counts, int length, long total) {
+		// ~ A context may show more characters than the alphabet was said to have
+		int k = Math.max(alphabetSize, length);
+		boolean precomputed = k == alphabetSize;
+
+		// ~ Coarse pass: find the range of b holding the posterior mass
+		double max = Double.NEGATIVE_INFINITY;
+		for (int j = 0; j < COARSE; j++) {
+			double c = precomputed ? coarseConstant[j] : constant(coarseB[j], k);
+			logPosterior[j] = c + logLikelihood(coarseB[j], counts, length, total, k);
+			max = Math.max(max, logPosterior[j]);
+		}
+		int lo = 0;
+		while (logPosterior[lo] < max - CUTOFF) {
+			lo++;
+		}
+		int hi = COARSE - 1;
+		while (logPosterior[hi] < max - CUTOFF) {
+			hi--;
+		}
+		lo = Math.max(lo - 1, 0);
+		hi = Math.min(hi + 1, COARSE - 1);
+
+		// ~ Fine pass: trapezoid rule in log b over that range, weights taken relative to the coarse maximum
+		double from = Math.log(coarseB[lo]);
+		double step = (Math.log(coarseB[hi]) - from) / (FINE - 1);
+		double mass = 0.0;
+		double h = 0.0;
+		for (int j = 0; j < FINE; j++) {
+			double b = Math.exp(from + j * step);
+			double w = Math.exp(constant(b, k) + logLikelihood(b, counts, length, total, k) - max);
+			if (j == 0 || j == FINE - 1) {
+				w *= 0.5;
+			}
+			mass += w;
+			h += w * meanEntropy(b, counts, length, total, k);
+		}
+		return h / mass;
+	}
+
+	/** log of the prior density in log b: log(b (K psi'(Kb + 1) - psi'(b + 1))) plus log Gamma(Kb). */
+	private static double constant(double b, int k) {
+		double prior = k * GammaFunctions.trigamma(k * b + 1.0) - GammaFunctions.trigamma(b + 1.0);
+		return Math.log(b * prior) + GammaFunctions.logGamma(k * b);
+	}
+
+	/** log P(n | b), less the log Gamma(Kb) that constant() adds. */
+	private static double logLikelihood(double b, long[] counts, int length, long total, int k) {
+		double l = -GammaFunctions.logGamma(total + k * b);
+		double logGammaB = GammaFunctions.logGamma(b);
+		for (int i = 0; i < length; i++) {
+			l += GammaFunctions.logGamma(counts[i] + b) - logGammaB;
+		}
+		return l;
+	}
+
+	/** The posterior mean of the entropy for a fixed b. */
+	private static double meanEntropy(double b, long[] counts, int length, long total, int k) {
+		double a = total + k * b;
+		double h = GammaFunctions.digamma(a + 1.0);
+		for (int i = 0; i < length; i++) {
+			h -= (counts[i] + b) / a * GammaFunctions.digamma(counts[i] + b + 1.0);
+		}
+		// ~ The characters not seen in this context
+		h -= (k - length) * b / a * GammaFunctions.digamma(b + 1.0);
+		return h;
+	}
+}
@@ -0,0 +1,28 @@
+/*
+ * Same as ShanMap, but reads the binary n-gram counts of NGramCountOutputFormat.
+ * Dropping the last character is a shift of the packed key, so nothing is formatted or parsed.
+ */
+package shannonIM;
+
+import java.io.IOException;
+
+import ngramcount.Alphabet;
+import ngramcount.NGramWritable;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.Mapper;
+
+public class ShanBinaryMap extends Mapper<NGramWritable, LongWritable, NGramWritable, LongWritable> {
+	private NGramWritable prefix = new NGramWritable();
+	private int bitsPerChar;
+
+	protected void setup(Context context) {
+		bitsPerChar = Alphabet.get(context.getConfiguration()).bitsPerChar();
+	}
+
+	public void map(NGramWritable key, LongWritable val, Context context) throws IOException, InterruptedException {
+		//~ Skip the last character
+		prefix.set(key.getNGram() >>> bitsPerChar, key.getOrder() - 1);
+		context.write(prefix, val);
+	}
+}
@@ -1,11 +1,16 @@
 package shannonIM;
 
+import charCount.InputDiscovery;
+import charCount.SimpleInputFilter;
+import ngramcount.Alphabet;
+import ngramcount.NGramCountInputFormat;
+import ngramcount.NGramWritable;
+
 import org.apache.hadoop.conf.Configured;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Job;
-import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.KeyValueTextInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
@@ -21,28 +26,63 @@ public class ShanCalc extends Configured implements Tool {
 		// ~ Now where can we find them classes?
 		job.setJarByClass(ShanMap.class);
 
+		// ~ Read the binary counts of NGramCount -binary, or its text output; any number of reducers will do.
+		// ~ -estimators adds bias corrected estimates, e.g. millermadow,chaoshen,nsb
+		boolean binary = false;
+		int numReducers = 1;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-binary")) {
+				binary = true;
+			} else if (args[i].equals("-numreducers")) {
+				numReducers = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-estimators")) {
+				EntropyEstimators.setEstimators(job.getConfiguration(), args[++i]);
+			} else if (args[i].equals("-alphabet")) {
+				// ~ The alphabet the binary counts were written in
+				Alphabet.set(job.getConfiguration(), args[++i], job.getConfiguration().getBoolean(Alphabet.CONF_UTF8, false));
+			} else if (args[i].equals("-utf8")) {
+				job.getConfiguration().setBoolean(Alphabet.CONF_UTF8, true);
+			}
+		}
+
 		// ~ Set map/combine/reduce classes
-		job.setMapperClass(ShanMap.class);
+		job.setMapperClass(binary ? ShanBinaryMap.class : ShanMap.class);
 		job.setReducerClass(ShanReducer.class);
+		job.setNumReduceTasks(numReducers);
 
 		// ~ Define input/output types
-		job.setInputFormatClass(KeyValueTextInputFormat.class);
+		if (binary) {
+			job.setInputFormatClass(NGramCountInputFormat.class);
+			job.setMapOutputKeyClass(NGramWritable.class);
+			job.setMapOutputValueClass(LongWritable.class);
+		} else {
+			job.setInputFormatClass(KeyValueTextInputFormat.class);
+		}
 		job.setOutputFormatClass(TextOutputFormat.class);
 		job.setOutputKeyClass(Text.class);
 		job.setOutputValueClass(LongWritable.class);
 
 		// ~ Specify input/output
-		FileInputFormat.setInputPathFilter(job, SimpleInputFilter.class);
-		SimpleInputFilter.setFilter("part");
+		SimpleInputFilter.setFilter(job.getConfiguration(), "part");
 		Path inputPath = new Path("/user/naward09/FULL_RUN_DO_NOT_REMOVE_ME/*");
 		Path outputPath = new Path("/user/naward09/shannonIM_on_full_run_full/");
 		
-		FileInputFormat.addInputPath(job, inputPath);
+		InputDiscovery.addInputPaths(job, inputPath);
 		FileOutputFormat.setOutputPath(job, outputPath);
 
 		System.out.println("Output path is " + outputPath.toString());
 
 		boolean verbose = false;
-		return (job.waitForCompletion(verbose) ? 1 : 0);
+		if (!job.waitForCompletion(verbose)) {
+			return 0;
+		}
+
+		// ~ Add up the partial sums of the reducers
+		ShanMerge merged = ShanMerge.merge(job.getConfiguration(), outputPath);
+		System.out.println(ShanMerge.ENTROPY + "\t" + merged.getEntropy());
+		for (String estimator : merged.getEstimators()) {
+			System.out.println(ShanMerge.ENTROPY + " " + estimator + "\t" + merged.getEntropy(estimator));
+		}
+		return 1;
 	}
 }
@@ -0,0 +1,157 @@
+/*
+ * The curve of conditional entropies H(k|k-1), k = 1..N, from a single pass over the N-gram counts of
+ * NGramCount -binary; see ShanCurveReducer. Replaces one count-plus-entropy job pair per order.
+ *
+ * Run with:
+ *   shannonIM.ShanCurve -in <inputpath> -out <outputpath> [ -order <order> ] [ -numreducers <reducers> ]
+ *
+ * The curve is printed and written to <outputpath>/curve, in natural units.
+ */
+package shannonIM;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import ngramcount.NGramCount;
+import ngramcount.NGramCountInputFormat;
+import ngramcount.NGramWritable;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+public class ShanCurve extends Configured implements Tool {
+	public static final String CURVE = "curve";
+
+	@Override
+	public int run(String[] args) throws Exception {
+		String inputPath = null;
+		String outputPath = null;
+		int order = NGramCount.DEFAULT_ORDER;
+		int numReducers = 1;
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-in")) {
+				inputPath = args[++i];
+			} else if (args[i].equals("-out")) {
+				outputPath = args[++i];
+			} else if (args[i].equals("-order")) {
+				order = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-numreducers")) {
+				numReducers = Integer.parseInt(args[++i]);
+			} else {
+				System.out.println("Unsupported argument: " + args[i]);
+			}
+		}
+		if (inputPath == null || outputPath == null) {
+			throw new IllegalArgumentException("Usage: ShanCurve -in <inputpath> -out <outputpath> [ -order <order> ] "
+					+ "[ -numreducers <reducers> ]");
+		}
+
+		Configuration conf = getConf();
+		NGramCount.setOrder(conf, order);
+		Job job = new Job(conf);
+
+		job.setJobName("ShanIM curve, order " + order);
+
+		// ~ Now where can we find them classes?
+		job.setJarByClass(ShanCurve.class);
+
+		// ~ Set map/reduce classes; every prefix must stay on one reducer
+		job.setMapperClass(ShanCurveMap.class);
+		job.setReducerClass(ShanCurveReducer.class);
+		job.setPartitionerClass(FirstCharPartitioner.class);
+		job.setNumReduceTasks(numReducers);
+
+		// ~ Define input/output types
+		job.setInputFormatClass(NGramCountInputFormat.class);
+		job.setMapOutputKeyClass(NGramWritable.class);
+		job.setMapOutputValueClass(LongWritable.class);
+		job.setOutputFormatClass(TextOutputFormat.class);
+		job.setOutputKeyClass(Text.class);
+		job.setOutputValueClass(DoubleWritable.class);
+
+		// ~ Specify input/output
+		FileInputFormat.addInputPath(job, new Path(inputPath));
+		FileOutputFormat.setOutputPath(job, new Path(outputPath));
+
+		System.out.println("Output path is " + outputPath);
+
+		if (!job.waitForCompletion(false)) {
+			return 1;
+		}
+		double[] curve = merge(conf, new Path(outputPath), order);
+		for (int k = 1; k <= order; k++) {
+			System.out.println("H(" + k + "|" + (k - 1) + ")\t" + curve[k]);
+		}
+		return 0;
+	}
+
+	/**
+	 * Adds up the partial sums of the reducers and returns H(k|k-1) at index k, writing it to CURVE as well.
+	 */
+	public static double[] merge(Configuration conf, Path dir, int order) throws IOException {
+		long total = 0L;
+		double[] cLogC = new double[order + 1];
+
+		FileSystem fs = dir.getFileSystem(conf);
+		for (FileStatus status : fs.listStatus(dir)) {
+			if (!status.getPath().getName().startsWith("part")) {
+				continue;
+			}
+			BufferedReader in = new BufferedReader(new InputStreamReader(fs.open(status.getPath()), "UTF-8"));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					int tab = line.indexOf('\t');
+					if (tab < 0) {
+						continue;
+					}
+					String key = line.substring(0, tab);
+					double value = Double.parseDouble(line.substring(tab + 1));
+					if (key.equals(ShanCurveReducer.TOTAL)) {
+						total += (long) value;
+					} else if (key.startsWith(ShanCurveReducer.CLOGC + " ")) {
+						cLogC[Integer.parseInt(key.substring(ShanCurveReducer.CLOGC.length() + 1))] += value;
+					}
+				}
+			} finally {
+				in.close();
+			}
+		}
+
+		// ~ The empty context: everything
+		cLogC[0] = total == 0 ? 0.0 : total * Math.log(total);
+
+		double[] curve = new double[order + 1];
+		PrintStream out = new PrintStream(fs.create(new Path(dir, CURVE), true), false, "UTF-8");
+		try {
+			out.println(ShanMerge.TOTAL + "\t" + (double) total);
+			for (int k = 1; k <= order; k++) {
+				curve[k] = total == 0 ? 0.0 : (cLogC[k - 1] - cLogC[k]) / total;
+				out.println("H(" + k + "|" + (k - 1) + ")\t" + curve[k]);
+			}
+		} finally {
+			out.close();
+		}
+		return curve;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int res = ToolRunner.run(new Configuration(), new ShanCurve(), args);
+		System.exit(res);
+	}
+}
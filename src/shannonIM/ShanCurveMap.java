@@ -0,0 +1,33 @@
+/*
+ * Feeds the N-grams of NGramCount -binary output to ShanCurveReducer as they are; n-grams of any other
+ * order (from a -minorder run) are skipped, since every lower order is derived from the N-grams.
+ */
+package shannonIM;
+
+import java.io.IOException;
+
+import ngramcount.NGramCount;
+import ngramcount.NGramWritable;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.Mapper;
+
+public class ShanCurveMap extends Mapper<NGramWritable, LongWritable, NGramWritable, LongWritable> {
+	protected static enum MAPPERCOUNTER {
+		OTHER_ORDER
+	}
+
+	private int n;
+
+	protected void setup(Context context) {
+		n = NGramCount.getOrder(context.getConfiguration());
+	}
+
+	public void map(NGramWritable key, LongWritable val, Context context) throws IOException, InterruptedException {
+		if (key.getOrder() != n) {
+			context.getCounter(MAPPERCOUNTER.OTHER_ORDER).increment(1);
+			return;
+		}
+		context.write(key, val);
+	}
+}
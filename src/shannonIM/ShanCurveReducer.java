@@ -0,0 +1,93 @@
+/*
+ * Computes the conditional entropies H(k|k-1) for every k up to N in one pass over sorted N-gram counts.
+ *
+ * The count of a k-gram is taken to be the sum of the counts of the N-grams it starts. For H(k|k-1) the
+ * contexts are the (k-1)-grams, so summing t log t - sum c log c over them gives A(k-1) - A(k), where
+ * A(j) is the sum of c log c over all j-grams. Since the N-grams come in sorted, every j-gram is a run of
+ * consecutive N-grams: one running count per length is all the memory needed, and a run ends where the
+ * next N-gram no longer shares its first j characters. FirstCharPartitioner keeps runs on one reducer.
+ *
+ * Writes TOTAL and every A(j) as partial sums; ShanCurve adds them up and computes the curve.
+ */
+package shannonIM;
+
+import java.io.IOException;
+
+import ngramcount.Alphabet;
+import ngramcount.NGramCount;
+import ngramcount.NGramWritable;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+
+public class ShanCurveReducer extends Reducer<NGramWritable, LongWritable, Text, DoubleWritable> {
+	public static final String TOTAL = "TOTAL";
+	public static final String CLOGC = "CLOGC";
+
+	private int n;
+	private int bitsPerChar;
+	private long total = 0L;
+
+	// ~ Per length j = 1..N: the count of the current j-gram, and A(j) so far
+	private long[] counts;
+	private double[] cLogC;
+
+	private boolean first = true;
+	private long last;
+
+	protected void setup(Context context) {
+		n = NGramCount.getOrder(context.getConfiguration());
+		bitsPerChar = Alphabet.get(context.getConfiguration()).bitsPerChar();
+		counts = new long[n + 1];
+		cLogC = new double[n + 1];
+	}
+
+	public void reduce(NGramWritable key, Iterable<LongWritable> values, Context context) throws IOException, InterruptedException {
+		long c = 0;
+		for (LongWritable val : values) {
+			c += val.get();
+		}
+
+		long ngram = key.getNGram();
+		if (!first) {
+			// ~ Every j-gram longer than the prefix shared with the last N-gram has ended
+			endRuns(commonPrefix(last, ngram));
+		}
+		first = false;
+		last = ngram;
+
+		for (int j = 1; j <= n; j++) {
+			counts[j] += c;
+		}
+		total += c;
+	}
+
+	/** The number of leading characters two packed N-grams share. */
+	private int commonPrefix(long a, long b) {
+		long x = a ^ b;
+		if (x == 0) {
+			return n;
+		}
+		int highestBit = 63 - Long.numberOfLeadingZeros(x);
+		return n - 1 - highestBit / bitsPerChar;
+	}
+
+	private void endRuns(int shared) {
+		for (int j = shared + 1; j <= n; j++) {
+			if (counts[j] > 0) {
+				cLogC[j] += counts[j] * Math.log(counts[j]);
+				counts[j] = 0;
+			}
+		}
+	}
+
+	public void cleanup(Context context) throws IOException, InterruptedException {
+		endRuns(0);
+		context.write(new Text(TOTAL), new DoubleWritable((double) total));
+		for (int j = 1; j <= n; j++) {
+			context.write(new Text(CLOGC + " " + j), new DoubleWritable(cLogC[j]));
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * NGramCount and ShanCalc in one job: the mappers count n-grams straight from the Common Crawl text, the
+ * n-grams are partitioned by their (N-1) character prefix, and the reducers compute the weighted entropy
+ * of the contexts they get (ShanFusedReducer). The driver then adds up the partial sums (ShanMerge).
+ * The counts never go through HDFS.
+ *
+ * Run with:
+ *   shannonIM.ShanFused -in <inputpath> -out <outputpath> [ -order <order> ] [ -numreducers <reducers> ]
+ *                       [ -maxfiles <maxfiles> ] [ -estimators <estimator,...> ]
+ *                       [ -alphabet <alphabet> ] [ -utf8 ]
+ */
+package shannonIM;
+
+import charCount.InputDiscovery;
+import charCount.SimpleInputFilter;
+import ngramcount.Alphabet;
+import ngramcount.NGramCount;
+import ngramcount.NGramPrefixPartitioner;
+import ngramcount.NGramWritable;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+import org.apache.hadoop.mapreduce.lib.reduce.LongSumReducer;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+public class ShanFused extends Configured implements Tool {
+	@Override
+	public int run(String[] args) throws Exception {
+		String inputPath = null;
+		String outputPath = null;
+		int order = NGramCount.DEFAULT_ORDER;
+		int numReducers = 1;
+		long maxFiles = -1;
+		String estimators = null;
+		String alphabetName = Alphabet.LETTERS;
+		boolean utf8 = false;
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-in")) {
+				inputPath = args[++i];
+			} else if (args[i].equals("-out")) {
+				outputPath = args[++i];
+			} else if (args[i].equals("-order")) {
+				order = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-numreducers")) {
+				numReducers = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-maxfiles")) {
+				maxFiles = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-estimators")) {
+				estimators = args[++i];
+			} else if (args[i].equals("-alphabet")) {
+				alphabetName = args[++i];
+			} else if (args[i].equals("-utf8")) {
+				utf8 = true;
+			} else {
+				System.out.println("Unsupported argument: " + args[i]);
+			}
+		}
+		if (inputPath == null || outputPath == null) {
+			throw new IllegalArgumentException("Usage: ShanFused -in <inputpath> -out <outputpath> [ -order <order> ] "
+					+ "[ -numreducers <reducers> ] [ -maxfiles <maxfiles> ] [ -estimators <estimator,...> ] "
+					+ "[ -alphabet <alphabet> ] [ -utf8 ]");
+		}
+		Alphabet alphabet = Alphabet.forName(alphabetName, utf8);
+		if (order < 2 || order > alphabet.maxOrder()) {
+			throw new IllegalArgumentException("Order must be between 2 and " + alphabet.maxOrder());
+		}
+
+		Configuration conf = getConf();
+		NGramCount.setOrder(conf, order);
+		SimpleInputFilter.setFilter(conf, "textData");
+		SimpleInputFilter.setMax(conf, maxFiles);
+		InputDiscovery.useManifests(conf);
+		Alphabet.set(conf, alphabetName, utf8);
+		if (estimators != null) {
+			EntropyEstimators.setEstimators(conf, estimators);
+		}
+		Job job = new Job(conf);
+
+		job.setJobName("ShanIM fused, order " + order);
+
+		// ~ Now where can we find them classes?
+		job.setJarByClass(ShanFused.class);
+
+		// ~ Count as NGramCount does, sum counts before the shuffle, compute entropy per context
+		job.setMapperClass(NGramCount.getMapperClass(alphabet, order));
+		job.setCombinerClass(LongSumReducer.class);
+		job.setReducerClass(ShanFusedReducer.class);
+		job.setNumReduceTasks(numReducers);
+
+		// ~ Define input/output types
+		job.setInputFormatClass(SequenceFileInputFormat.class);
+		job.setMapOutputKeyClass(NGramWritable.class);
+		job.setMapOutputValueClass(LongWritable.class);
+		job.setOutputFormatClass(TextOutputFormat.class);
+		job.setOutputKeyClass(Text.class);
+		job.setOutputValueClass(DoubleWritable.class);
+
+		// ~ Specify input/output
+		InputDiscovery.addInputPaths(job, new Path(inputPath));
+		FileOutputFormat.setOutputPath(job, new Path(outputPath));
+
+		// ~ All n-grams of a context must meet on the same reducer
+		job.setPartitionerClass(NGramPrefixPartitioner.class);
+		NGramPrefixPartitioner.writeSplitPoints(job, numReducers);
+
+		System.out.println("Output path is " + outputPath);
+
+		if (!job.waitForCompletion(false)) {
+			return 1;
+		}
+		ShanMerge merged = ShanMerge.merge(conf, new Path(outputPath));
+		System.out.println(ShanMerge.TOTAL + "\t" + (double) merged.getTotal());
+		System.out.println(ShanMerge.WSS + "\t" + merged.getWeightedShanSum());
+		System.out.println(ShanMerge.ENTROPY + "\t" + merged.getEntropy());
+		for (String estimator : merged.getEstimators()) {
+			System.out.println(ShanMerge.ENTROPY + " " + estimator + "\t" + merged.getEntropy(estimator));
+		}
+		return 0;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int res = ToolRunner.run(new Configuration(), new ShanFused(), args);
+		System.exit(res);
+	}
+}
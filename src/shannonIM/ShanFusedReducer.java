@@ -0,0 +1,54 @@
+/*
+ * ShanReducer for the fused job: the n-grams themselves come in, sorted, and every run of n-grams with the
+ * same (N-1) character prefix is one context. NGramPrefixPartitioner keeps such runs on one reducer, so
+ * any number of reducers can be used; each writes its partial sums, which ShanMerge adds up.
+ *
+ * The counts of a run are handed to ContextEntropy one n-gram at a time, and the context is closed when
+ * the prefix changes.
+ */
+package shannonIM;
+
+import java.io.IOException;
+
+import ngramcount.Alphabet;
+import ngramcount.NGramPrefixPartitioner;
+import ngramcount.NGramWritable;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+
+public class ShanFusedReducer extends Reducer<NGramWritable, LongWritable, Text, DoubleWritable> {
+	private ContextEntropy entropy;
+
+	// ~ The prefix of the context being read
+	private boolean inContext = false;
+	private long prefix;
+	private int bitsPerChar;
+
+	public void setup(Context context) {
+		entropy = new ContextEntropy(context.getConfiguration());
+		bitsPerChar = Alphabet.get(context.getConfiguration()).bitsPerChar();
+	}
+
+	public void reduce(NGramWritable key, Iterable<LongWritable> values, Context context) throws IOException, InterruptedException {
+		long c = 0;
+		for (LongWritable val : values) {
+			c += val.get();
+		}
+
+		long p = NGramPrefixPartitioner.prefix(key.get(), bitsPerChar);
+		if (inContext && p != prefix) {
+			entropy.endContext();
+		}
+		inContext = true;
+		prefix = p;
+		entropy.add(c);
+	}
+
+	public void cleanup(Context context) throws IOException, InterruptedException {
+		entropy.endContext();
+		entropy.write(context);
+	}
+}
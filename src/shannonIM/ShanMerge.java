@@ -0,0 +1,128 @@
+/*
+ * The final step of a multi-reducer entropy job. TOTAL and WEIGHTED SHAN SUM are plain sums over the contexts,
+ * so the partial values written by every reducer just add up; ENTROPY is computed once from the sums.
+ * The same goes for the WEIGHTED SUM and ENTROPY of every other estimator, which carry its name.
+ */
+package shannonIM;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+public class ShanMerge {
+	public static final String TOTAL = "TOTAL";
+	public static final String WSS = "WEIGHTED SHAN SUM";
+	public static final String ENTROPY = "ENTROPY";
+	public static final String WEIGHTED_SUM = "WEIGHTED SUM";
+
+	/** Name of the file with the merged result, next to the part files. */
+	public static final String SUMMARY = "summary";
+
+	// ~ Merged values, filled in by merge()
+	private long total = 0L;
+	private double wss = 0.0;
+	private final Map<String, Double> sums = new LinkedHashMap<String, Double>();
+
+	public long getTotal() {
+		return total;
+	}
+
+	public double getWeightedShanSum() {
+		return wss;
+	}
+
+	/** In natural units, like everything else here. */
+	public double getEntropy() {
+		return wss / total;
+	}
+
+	/** The names of the estimators found, in the order of the output. */
+	public Iterable<String> getEstimators() {
+		return sums.keySet();
+	}
+
+	public double getEntropy(String estimator) {
+		return sums.get(estimator) / total;
+	}
+
+	/**
+	 * Writes the partial sums of one reducer.
+	 */
+	public static void write(TaskInputOutputContext<?, ?, Text, DoubleWritable> context, long total, double wss)
+			throws IOException, InterruptedException {
+		context.write(new Text(TOTAL), new DoubleWritable((double) total));
+		context.write(new Text(WSS), new DoubleWritable(wss));
+		context.write(new Text(ENTROPY), new DoubleWritable(total == 0 ? 0.0 : wss / total));
+	}
+
+	/**
+	 * Writes the weighted sum of one estimator of one reducer.
+	 */
+	public static void write(TaskInputOutputContext<?, ?, Text, DoubleWritable> context, String estimator,
+			long total, double sum) throws IOException, InterruptedException {
+		context.write(new Text(WEIGHTED_SUM + " " + estimator), new DoubleWritable(sum));
+		context.write(new Text(ENTROPY + " " + estimator), new DoubleWritable(total == 0 ? 0.0 : sum / total));
+	}
+
+	/**
+	 * Adds up the partial sums in the part files of a job output directory, and writes them to SUMMARY
+	 * in the same format.
+	 */
+	public static ShanMerge merge(Configuration conf, Path dir) throws IOException {
+		ShanMerge merged = new ShanMerge();
+		FileSystem fs = dir.getFileSystem(conf);
+		for (FileStatus status : fs.listStatus(dir)) {
+			if (!status.getPath().getName().startsWith("part")) {
+				continue;
+			}
+			BufferedReader in = new BufferedReader(new InputStreamReader(fs.open(status.getPath()), "UTF-8"));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					int tab = line.indexOf('\t');
+					if (tab < 0) {
+						continue;
+					}
+					String key = line.substring(0, tab);
+					double value = Double.parseDouble(line.substring(tab + 1));
+					if (key.equals(TOTAL)) {
+						merged.total += (long) value;
+					} else if (key.equals(WSS)) {
+						merged.wss += value;
+					} else if (key.startsWith(WEIGHTED_SUM + " ")) {
+						String estimator = key.substring(WEIGHTED_SUM.length() + 1);
+						Double sum = merged.sums.get(estimator);
+						merged.sums.put(estimator, sum == null ? value : sum + value);
+					}
+				}
+			} finally {
+				in.close();
+			}
+		}
+
+		PrintStream out = new PrintStream(fs.create(new Path(dir, SUMMARY), true), false, "UTF-8");
+		try {
+			out.println(TOTAL + "\t" + (double) merged.total);
+			out.println(WSS + "\t" + merged.wss);
+			out.println(ENTROPY + "\t" + merged.getEntropy());
+			for (String estimator : merged.getEstimators()) {
+				out.println(WEIGHTED_SUM + " " + estimator + "\t" + merged.sums.get(estimator));
+				out.println(ENTROPY + " " + estimator + "\t" + merged.getEntropy(estimator));
+			}
+		} finally {
+			out.close();
+		}
+		return merged;
+	}
+}
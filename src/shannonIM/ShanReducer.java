@@ -8,42 +8,28 @@ import org.apache.hadoop.mapreduce.Reducer;
 
 /*
 * Transforms a dictionary of words + their amount of occurrences to the entropy of chosing the next character.
-* Should only run as a single Reducer! It needs a global knowledge of data; no others interfering.
+* Every context is one key, so it is seen by one reducer only: each reducer writes the partial sums of its own
+* contexts, and ShanMerge adds up those of all reducers.
+* Besides the plug-in estimate, the estimators set in EntropyEstimators.CONF_ESTIMATORS are computed in the same pass.
 */
-public class ShanReducer extends Reducer<Text, LongWritable, Text, DoubleWritable> {
-	private long total = 0L;
-	private double wss = 0.0;
+public class ShanReducer<KEY> extends Reducer<KEY, LongWritable, Text, DoubleWritable> {
+	private ContextEntropy entropy;
 
-	public void reduce(Text key, Iterable<LongWritable> values, Context context) throws IOException, InterruptedException {
-		// ~ Total amount of occurrences, to be filled in first and used in second for-loop.
-		long t = 0;
+	public void setup(Context context) {
+		entropy = new ContextEntropy(context.getConfiguration());
+	}
 
-		// ~ Temporary storage for the occurrences. Alphabetic order does not matter; this is just statistics...
-		long[] longs = new long[27];
-		int i = -1;
-		
+	public void reduce(KEY key, Iterable<LongWritable> values, Context context) throws IOException, InterruptedException {
+		// ~ Alphabetic order does not matter; this is just statistics...
 		for (LongWritable val : values) {
-			t += val.get();
-			i++;
-			longs[i] = val.get();
-		}
-		
-		double localTotal = (double) t;
-		double weightedShan = 0.0;
-
-		for (; i >= 0; i--) {
-			weightedShan -= longs[i] * Math.log(longs[i] / localTotal);
+			entropy.add(val.get());
 		}
-
-		this.total += t;
-		this.wss += weightedShan;
+		entropy.endContext();
 	}
 
 	public void cleanup(Context context) {
 		try {
-			context.write(new Text("TOTAL"), new DoubleWritable((double) total));
-			context.write(new Text("WEIGHTED SHAN SUM"), new DoubleWritable(this.wss));
-			context.write(new Text("ENTROPY"), new DoubleWritable(wss / total));
+			entropy.write(context);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
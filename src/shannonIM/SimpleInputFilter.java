@@ -1,45 +0,0 @@
-package shannonIM;
-
-import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.fs.PathFilter;
-
-/**
- * Hadoop FileSystem PathFilter for TextData files, allowing users to limit the
- * number of files processed.
- * 
- * @author Chris Stephens <chris@commoncrawl.org>
- */
-public class SimpleInputFilter implements PathFilter {
-
-	private static int count = 0;
-	private static long max = -1;
-	private static String filter = "";
-
-	public static void setFilter(String filter) {
-		SimpleInputFilter.filter = filter;
-	}
-
-	public static void setMax(long newmax) {
-		max = newmax;
-	}
-
-	@Override
-	public boolean accept(Path path) {
-		
-		System.out.println("The requested path is; " + path.toString());
-
-		if (!path.getName().contains(filter)) {
-			return false;
-		}
-
-		if (max < 0) {
-			return true;
-		}
-
-		if (max < ++count) {
-			return false;
-		}
-
-		return true;
-	}
-}
\ No newline at end of file
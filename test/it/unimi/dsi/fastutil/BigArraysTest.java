@@ -0,0 +1,111 @@
+package it.unimi.dsi.fastutil;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.unimi.dsi.fastutil.longs.LongComparator;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Checks the generic parallel sorts of big ranges against the sequential ones, on keys that carry the position they started from. */
+public class BigArraysTest {
+
+	private static final int[] SIZES = { 0, 1, 2, 100, 10000, 50000 };
+
+	/** Returns random keys, keys with many duplicates, sorted keys or keys in reverse order. */
+	private static int[] keys( final int kind, final int n, final Random r ) {
+		final int[] a = new int[ n ];
+		for( int i = 0; i < n; i++ ) {
+			switch( kind ) {
+			case 0: a[ i ] = r.nextInt(); break;
+			case 1: a[ i ] = r.nextInt( 50 ); break;
+			case 2: a[ i ] = i; break;
+			default: a[ i ] = n - i;
+			}
+		}
+		return a;
+	}
+
+	/** Keys, and the positions they started from, compared by key only and swapped together. */
+	private static final class Pairs implements LongComparator, BigSwapper {
+		final int[] key;
+		final int[] pos;
+
+		Pairs( final int[] key ) {
+			this.key = key.clone();
+			pos = new int[ key.length ];
+			for( int i = pos.length; i-- != 0; ) pos[ i ] = i;
+		}
+
+		public int compare( long i, long j ) {
+			return Integer.compare( key[ (int)i ], key[ (int)j ] );
+		}
+
+		public int compare( Long i, Long j ) {
+			return compare( i.longValue(), j.longValue() );
+		}
+
+		public void swap( long l, long m ) {
+			final int i = (int)l, j = (int)m;
+			final int k = key[ i ], p = pos[ i ];
+			key[ i ] = key[ j ];
+			pos[ i ] = pos[ j ];
+			key[ j ] = k;
+			pos[ j ] = p;
+		}
+
+		/** Checks that every key is still paired with the position it started from in <code>a</code>. */
+		void assertPaired( final int[] a ) {
+			for( int i = key.length; i-- != 0; ) assertEquals( a[ pos[ i ] ], key[ i ] );
+		}
+	}
+
+	@Test
+	public void testParallelQuickSort() {
+		final Random r = new Random( 0 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final int[] a = keys( kind, n, r );
+			final Pairs p = new Pairs( a );
+			BigArrays.parallelQuickSort( 0, n, p, p );
+			p.assertPaired( a );
+			final int[] s = a.clone();
+			java.util.Arrays.sort( s );
+			assertArrayEquals( s, p.key );
+		}
+	}
+
+	@Test
+	public void testParallelMergeSortIsStable() {
+		final Random r = new Random( 1 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final int[] a = keys( kind, n, r );
+			final Pairs s = new Pairs( a );
+			BigArrays.mergeSort( 0, n, s, s );
+			final Pairs p = new Pairs( a );
+			BigArrays.parallelMergeSort( 0, n, p, p );
+			assertArrayEquals( s.key, p.key );
+			assertArrayEquals( s.pos, p.pos );
+			for( int i = 1; i < n; i++ ) assertTrue( p.key[ i - 1 ] < p.key[ i ] || p.pos[ i - 1 ] < p.pos[ i ] );
+		}
+	}
+
+	@Test
+	public void testParallelSortsRange() {
+		final Random r = new Random( 2 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final int[] a = keys( kind, n, r );
+			final int from = n / 3, to = n - n / 4;
+			final Pairs s = new Pairs( a );
+			BigArrays.mergeSort( from, to, s, s );
+			final Pairs m = new Pairs( a );
+			BigArrays.parallelMergeSort( from, to, m, m );
+			assertArrayEquals( s.pos, m.pos );
+			final Pairs q = new Pairs( a );
+			BigArrays.parallelQuickSort( from, to, q, q );
+			q.assertPaired( a );
+			assertArrayEquals( s.key, q.key );
+		}
+	}
+}
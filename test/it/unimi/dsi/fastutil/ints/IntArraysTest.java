@@ -0,0 +1,118 @@
+package it.unimi.dsi.fastutil.ints;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Checks the parallel sorts against the sequential ones. Run with a small <code>it.unimi.dsi.fastutil.parallelSortNoFork</code>
+ * so that even the short arrays are cut into tasks. */
+public class IntArraysTest {
+
+	private static final int[] SIZES = { 0, 1, 2, 100, 10000, 200000 };
+
+	/** Orders ints by all but their four lowest bits, so that many distinct elements compare equal. */
+	private static final IntComparator COARSE = new IntComparator() {
+		public int compare( int a, int b ) {
+			return Integer.compare( a >> 4, b >> 4 );
+		}
+		public int compare( Integer a, Integer b ) {
+			return compare( a.intValue(), b.intValue() );
+		}
+	};
+
+	/** Returns random keys, keys with many duplicates, sorted keys or keys in reverse order. */
+	private static int[] keys( final int kind, final int n, final Random r ) {
+		final int[] a = new int[ n ];
+		for( int i = 0; i < n; i++ ) {
+			switch( kind ) {
+			case 0: a[ i ] = r.nextInt(); break;
+			case 1: a[ i ] = r.nextInt( 50 ); break;
+			case 2: a[ i ] = i; break;
+			default: a[ i ] = n - i;
+			}
+		}
+		return a;
+	}
+
+	@Test
+	public void testParallelQuickSort() {
+		final Random r = new Random( 0 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final int[] a = keys( kind, n, r );
+			final int[] s = a.clone();
+			java.util.Arrays.sort( s );
+			IntArrays.parallelQuickSort( a );
+			assertArrayEquals( s, a );
+		}
+	}
+
+	@Test
+	public void testParallelMergeSort() {
+		final Random r = new Random( 1 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final int[] a = keys( kind, n, r );
+			final int[] s = a.clone();
+			java.util.Arrays.sort( s );
+			IntArrays.parallelMergeSort( a );
+			assertArrayEquals( s, a );
+		}
+	}
+
+	@Test
+	public void testParallelSortsRange() {
+		final Random r = new Random( 2 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final int[] a = keys( kind, n, r );
+			final int from = n / 3, to = n - n / 4;
+			final int[] s = a.clone();
+			IntArrays.quickSort( s, from, to );
+			final int[] q = a.clone();
+			IntArrays.parallelQuickSort( q, from, to );
+			assertArrayEquals( s, q );
+			final int[] m = a.clone();
+			IntArrays.parallelMergeSort( m, from, to );
+			assertArrayEquals( s, m );
+		}
+	}
+
+	@Test
+	public void testParallelQuickSortComparator() {
+		final Random r = new Random( 3 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final int[] a = keys( kind, n, r );
+			final int[] s = a.clone();
+			IntArrays.parallelQuickSort( a, COARSE );
+			for( int i = 1; i < n; i++ ) assertTrue( COARSE.compare( a[ i - 1 ], a[ i ] ) <= 0 );
+			// The same elements, in some order
+			final int[] t = a.clone();
+			java.util.Arrays.sort( s );
+			java.util.Arrays.sort( t );
+			assertArrayEquals( s, t );
+		}
+	}
+
+	@Test
+	public void testParallelMergeSortComparatorIsStable() {
+		final Random r = new Random( 4 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final int[] a = keys( kind, n, r );
+			final int[] s = a.clone();
+			IntArrays.mergeSort( s, COARSE );
+			IntArrays.parallelMergeSort( a, COARSE );
+			assertArrayEquals( s, a );
+		}
+	}
+
+	@Test
+	public void testParallelMergeSortComparatorRange() {
+		final Random r = new Random( 5 );
+		final int[] a = keys( 1, 100000, r );
+		final int[] s = a.clone();
+		IntArrays.mergeSort( s, 1000, 90000, COARSE );
+		IntArrays.parallelMergeSort( a, 1000, 90000, COARSE );
+		assertArrayEquals( s, a );
+	}
+}
@@ -0,0 +1,118 @@
+package it.unimi.dsi.fastutil.longs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Checks the parallel sorts against the sequential ones. Run with a small <code>it.unimi.dsi.fastutil.parallelSortNoFork</code>
+ * so that even the short arrays are cut into tasks. */
+public class LongArraysTest {
+
+	private static final int[] SIZES = { 0, 1, 2, 100, 10000, 200000 };
+
+	/** Orders longs by all but their four lowest bits, so that many distinct elements compare equal. */
+	private static final LongComparator COARSE = new LongComparator() {
+		public int compare( long a, long b ) {
+			return Long.compare( a >> 4, b >> 4 );
+		}
+		public int compare( Long a, Long b ) {
+			return compare( a.longValue(), b.longValue() );
+		}
+	};
+
+	/** Returns random keys, keys with many duplicates, sorted keys or keys in reverse order. */
+	private static long[] keys( final int kind, final int n, final Random r ) {
+		final long[] a = new long[ n ];
+		for( int i = 0; i < n; i++ ) {
+			switch( kind ) {
+			case 0: a[ i ] = r.nextLong(); break;
+			case 1: a[ i ] = r.nextInt( 50 ); break;
+			case 2: a[ i ] = i; break;
+			default: a[ i ] = n - i;
+			}
+		}
+		return a;
+	}
+
+	@Test
+	public void testParallelQuickSort() {
+		final Random r = new Random( 0 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final long[] a = keys( kind, n, r );
+			final long[] s = a.clone();
+			java.util.Arrays.sort( s );
+			LongArrays.parallelQuickSort( a );
+			assertArrayEquals( s, a );
+		}
+	}
+
+	@Test
+	public void testParallelMergeSort() {
+		final Random r = new Random( 1 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final long[] a = keys( kind, n, r );
+			final long[] s = a.clone();
+			java.util.Arrays.sort( s );
+			LongArrays.parallelMergeSort( a );
+			assertArrayEquals( s, a );
+		}
+	}
+
+	@Test
+	public void testParallelSortsRange() {
+		final Random r = new Random( 2 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final long[] a = keys( kind, n, r );
+			final int from = n / 3, to = n - n / 4;
+			final long[] s = a.clone();
+			LongArrays.quickSort( s, from, to );
+			final long[] q = a.clone();
+			LongArrays.parallelQuickSort( q, from, to );
+			assertArrayEquals( s, q );
+			final long[] m = a.clone();
+			LongArrays.parallelMergeSort( m, from, to );
+			assertArrayEquals( s, m );
+		}
+	}
+
+	@Test
+	public void testParallelQuickSortComparator() {
+		final Random r = new Random( 3 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final long[] a = keys( kind, n, r );
+			final long[] s = a.clone();
+			LongArrays.parallelQuickSort( a, COARSE );
+			for( int i = 1; i < n; i++ ) assertTrue( COARSE.compare( a[ i - 1 ], a[ i ] ) <= 0 );
+			// The same elements, in some order
+			final long[] t = a.clone();
+			java.util.Arrays.sort( s );
+			java.util.Arrays.sort( t );
+			assertArrayEquals( s, t );
+		}
+	}
+
+	@Test
+	public void testParallelMergeSortComparatorIsStable() {
+		final Random r = new Random( 4 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final long[] a = keys( kind, n, r );
+			final long[] s = a.clone();
+			LongArrays.mergeSort( s, COARSE );
+			LongArrays.parallelMergeSort( a, COARSE );
+			assertArrayEquals( s, a );
+		}
+	}
+
+	@Test
+	public void testParallelMergeSortComparatorRange() {
+		final Random r = new Random( 5 );
+		final long[] a = keys( 1, 100000, r );
+		final long[] s = a.clone();
+		LongArrays.mergeSort( s, 1000, 90000, COARSE );
+		LongArrays.parallelMergeSort( a, 1000, 90000, COARSE );
+		assertArrayEquals( s, a );
+	}
+}
@@ -0,0 +1,85 @@
+package it.unimi.dsi.fastutil.longs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Checks the parallel quicksorts of big arrays against the sequential ones. */
+public class LongBigArraysTest {
+
+	private static final int[] SIZES = { 0, 1, 2, 100, 10000, 200000 };
+
+	/** Orders longs by all but their four lowest bits, so that many distinct elements compare equal. */
+	private static final LongComparator COARSE = new LongComparator() {
+		public int compare( long a, long b ) {
+			return Long.compare( a >> 4, b >> 4 );
+		}
+		public int compare( Long a, Long b ) {
+			return compare( a.longValue(), b.longValue() );
+		}
+	};
+
+	/** Returns random keys, keys with many duplicates, sorted keys or keys in reverse order. */
+	private static long[] keys( final int kind, final int n, final Random r ) {
+		final long[] a = new long[ n ];
+		for( int i = 0; i < n; i++ ) {
+			switch( kind ) {
+			case 0: a[ i ] = r.nextLong(); break;
+			case 1: a[ i ] = r.nextInt( 50 ); break;
+			case 2: a[ i ] = i; break;
+			default: a[ i ] = n - i;
+			}
+		}
+		return a;
+	}
+
+	/** Returns the elements of a big array of at most one segment. */
+	private static long[] unwrap( final long[][] a ) {
+		return a.length == 0 ? new long[ 0 ] : a[ 0 ];
+	}
+
+	@Test
+	public void testParallelQuickSort() {
+		final Random r = new Random( 0 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final long[] a = keys( kind, n, r );
+			final long[][] b = LongBigArrays.wrap( a.clone() );
+			java.util.Arrays.sort( a );
+			LongBigArrays.parallelQuickSort( b );
+			assertArrayEquals( a, unwrap( b ) );
+		}
+	}
+
+	@Test
+	public void testParallelQuickSortRange() {
+		final Random r = new Random( 1 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final long[] a = keys( kind, n, r );
+			final long from = n / 3, to = n - n / 4;
+			final long[][] s = LongBigArrays.wrap( a.clone() );
+			LongBigArrays.quickSort( s, from, to );
+			final long[][] p = LongBigArrays.wrap( a.clone() );
+			LongBigArrays.parallelQuickSort( p, from, to );
+			assertArrayEquals( unwrap( s ), unwrap( p ) );
+		}
+	}
+
+	@Test
+	public void testParallelQuickSortComparator() {
+		final Random r = new Random( 2 );
+		for( int n : SIZES ) for( int kind = 0; kind < 4; kind++ ) {
+			final long[] a = keys( kind, n, r );
+			final long[][] b = LongBigArrays.wrap( a.clone() );
+			LongBigArrays.parallelQuickSort( b, COARSE );
+			for( long i = 1; i < n; i++ ) assertTrue( COARSE.compare( LongBigArrays.get( b, i - 1 ), LongBigArrays.get( b, i ) ) <= 0 );
+			// The same elements, in some order
+			final long[] t = unwrap( b ).clone();
+			java.util.Arrays.sort( a );
+			java.util.Arrays.sort( t );
+			assertArrayEquals( a, t );
+		}
+	}
+}
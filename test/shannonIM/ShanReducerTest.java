@@ -0,0 +1,185 @@
+package shannonIM;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.RawKeyValueIterator;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.partition.HashPartitioner;
+import org.apache.hadoop.util.Progress;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that ShanCalc gives the same result on any number of reducers.
+ *
+ * The local job runner has a single reducer, so the test does the shuffle
+ * itself: the contexts are partitioned as HashPartitioner would, every
+ * partition is sorted and reduced by its own ShanReducer into its own part
+ * file, and ShanMerge adds up the part files.
+ */
+public class ShanReducerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String ESTIMATORS = "millermadow,chaoshen,nsb";
+
+	/** A context and the count of one of its n-grams. */
+	private static final class Count implements Comparable<Count> {
+		final Text context;
+		final long count;
+
+		Count(Text context, long count) {
+			this.context = context;
+			this.count = count;
+		}
+
+		public int compareTo(Count o) {
+			return context.compareTo(o.context);
+		}
+	}
+
+	@Test
+	public void testSameResultOnAnyNumberOfReducers() throws Exception {
+		Configuration conf = new Configuration();
+		EntropyEstimators.setEstimators(conf, ESTIMATORS);
+
+		// ~ Contexts followed by 1 to 27 characters, seen up to 1000 times each, some of them once
+		Random r = new Random(0);
+		List<Count> counts = new ArrayList<Count>();
+		for (int c = 0; c < 5000; c++) {
+			Text context = new Text(Integer.toString(r.nextInt(), 36));
+			for (int next = 1 + r.nextInt(27); next-- != 0;) {
+				counts.add(new Count(context, r.nextBoolean() ? 1 : 1 + r.nextInt(1000)));
+			}
+		}
+
+		ShanMerge single = reduce(conf, counts, 1);
+		for (int reducers : new int[] { 2, 5, 16 }) {
+			ShanMerge merged = reduce(conf, counts, reducers);
+			assertEquals(single.getTotal(), merged.getTotal());
+			assertEquals(single.getWeightedShanSum(), merged.getWeightedShanSum(), 1e-9 * single.getWeightedShanSum());
+			assertEquals(single.getEntropy(), merged.getEntropy(), 1e-12);
+			for (String estimator : single.getEstimators()) {
+				assertEquals(single.getEntropy(estimator), merged.getEntropy(estimator), 1e-12);
+			}
+		}
+	}
+
+	/** Reduces the counts on the given number of reducers, and merges their part files. */
+	private ShanMerge reduce(Configuration conf, List<Count> counts, int reducers) throws Exception {
+		List<List<Count>> partitions = new ArrayList<List<Count>>();
+		for (int i = 0; i < reducers; i++) {
+			partitions.add(new ArrayList<Count>());
+		}
+		HashPartitioner<Text, LongWritable> partitioner = new HashPartitioner<Text, LongWritable>();
+		for (Count c : counts) {
+			partitions.get(partitioner.getPartition(c.context, null, reducers)).add(c);
+		}
+
+		File dir = folder.newFolder("reducers" + reducers);
+		for (int i = 0; i < reducers; i++) {
+			List<Count> partition = partitions.get(i);
+			// ~ Sorted, so that every context reaches the reducer as one group
+			Collections.sort(partition);
+			PrintWriter out = new PrintWriter(new File(dir, String.format("part-r-%05d", i)), "UTF-8");
+			try {
+				reduce(conf, partition.iterator(), out);
+			} finally {
+				out.close();
+			}
+		}
+		return ShanMerge.merge(conf, new Path(dir.getPath()));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void reduce(Configuration conf, final Iterator<Count> in, final PrintWriter out) throws Exception {
+		RawKeyValueIterator input = new RawKeyValueIterator() {
+			private final DataInputBuffer key = new DataInputBuffer();
+			private final DataInputBuffer value = new DataInputBuffer();
+
+			public DataInputBuffer getKey() {
+				return key;
+			}
+
+			public DataInputBuffer getValue() {
+				return value;
+			}
+
+			public boolean next() throws IOException {
+				if (!in.hasNext()) {
+					return false;
+				}
+				Count c = in.next();
+				DataOutputBuffer buffer = new DataOutputBuffer();
+				c.context.write(buffer);
+				key.reset(buffer.getData(), buffer.getLength());
+				buffer = new DataOutputBuffer();
+				new LongWritable(c.count).write(buffer);
+				value.reset(buffer.getData(), buffer.getLength());
+				return true;
+			}
+
+			public void close() {
+			}
+
+			public Progress getProgress() {
+				return new Progress();
+			}
+		};
+		RecordWriter<Text, DoubleWritable> output = new RecordWriter<Text, DoubleWritable>() {
+			public void write(Text key, DoubleWritable value) {
+				out.println(key + "\t" + value);
+			}
+
+			public void close(TaskAttemptContext context) {
+			}
+		};
+		StatusReporter reporter = new StatusReporter() {
+			public Counter getCounter(Enum<?> name) {
+				return new Counter() {
+				};
+			}
+
+			public Counter getCounter(String group, String name) {
+				return new Counter() {
+				};
+			}
+
+			public void progress() {
+			}
+
+			public void setStatus(String status) {
+			}
+
+			public float getProgress() {
+				return 0;
+			}
+		};
+		ShanReducer<Text> reducer = new ShanReducer<Text>();
+		reducer.run(reducer.new Context(conf, new TaskAttemptID(), input, new Counter() {
+		}, new Counter() {
+		}, output, null, reporter, new Text.Comparator(), Text.class, LongWritable.class));
+	}
+}